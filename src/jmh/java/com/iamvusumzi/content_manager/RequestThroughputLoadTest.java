@@ -0,0 +1,237 @@
+package com.iamvusumzi.content_manager;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.JwtUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test comparing Tomcat on platform threads with Tomcat on
+ * virtual threads. Each run boots the application on a fresh in-memory H2 database,
+ * seeds it, then keeps {@code concurrency} clients calling {@code GET /api/contents/my?size=20}
+ * (a JWT check plus two queries) for {@code duration} seconds.
+ * <p>
+ * An in-memory database answers in microseconds, which hides exactly the blocking
+ * virtual threads are meant to absorb, so every JDBC statement is delayed by
+ * {@code latency} ms to stand in for the network round trip to Postgres.
+ * <p>
+ * Arguments are {@code key=value}: modes, pools, concurrency, duration, warmup, latency.
+ */
+public class RequestThroughputLoadTest {
+
+    private static final int AUTHORS = 50;
+    private static final int ROWS_PER_AUTHOR = 40;
+
+    // Off while seeding so setup does not pay the simulated round trip per insert
+    private static volatile long statementLatencyMs;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<String> modes = List.of(options.getOrDefault("modes", "platform,virtual").split(","));
+        List<String> pools = List.of(options.getOrDefault("pools", "20").split(","));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latency", "5"));
+
+        List<String> results = new ArrayList<>();
+        for (String pool : pools) {
+            for (String mode : modes) {
+                results.add(run(mode, Integer.parseInt(pool), concurrency, warmupSeconds, durationSeconds, latencyMs));
+            }
+        }
+
+        System.out.printf("%n%-9s %5s %11s %11s %9s %9s %9s %7s%n",
+                "threads", "pool", "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(String mode, int poolSize, int concurrency,
+                              int warmupSeconds, int durationSeconds, long latencyMs) throws Exception {
+        statementLatencyMs = 0;
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ContentManagerApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SimulatedLatencyPostProcessor()))
+                .run("--spring.profiles.active=test",
+                        "--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.iamvusumzi=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + "-" + poolSize
+                                + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false",
+                        "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--spring.datasource.hikari.minimum-idle=" + poolSize);
+        try {
+            List<User> authors = seed(context.getBean(UserRepository.class), context.getBean(ContentRepository.class));
+            JwtUtil jwtUtil = context.getBean(JwtUtil.class);
+            List<String> tokens = new ArrayList<>();
+            for (User author : authors) {
+                tokens.add(jwtUtil.generateToken(author.getId(), author.getUsername(), author.getRole().name()));
+            }
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/contents/my?size=20");
+
+            statementLatencyMs = latencyMs;
+            Result result = drive(uri, tokens, concurrency, warmupSeconds, durationSeconds);
+            return String.format("%-9s %5d %11d %11d %9.0f %9.1f %9.1f %7d",
+                    mode, poolSize, concurrency, result.requests(),
+                    result.requests() / (double) durationSeconds,
+                    result.percentileMs(0.50), result.percentileMs(0.99), result.errors());
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result drive(URI uri, List<String> tokens, int concurrency,
+                                int warmupSeconds, int durationSeconds) {
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmupSeconds).toNanos();
+        long measureUntil = measureFrom + Duration.ofSeconds(durationSeconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        // Closing the executor waits for every client loop; the HTTP client must outlive it
+        try (HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .header("Authorization", "Bearer " + tokens.get(c % tokens.size()))
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    long now;
+                    while ((now = System.nanoTime()) < measureUntil) {
+                        boolean ok;
+                        try {
+                            ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (now < measureFrom || end > measureUntil) continue;
+                        if (!ok) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+                        samples[count++] = end - now;
+                    }
+                    latencies.add(Arrays.copyOf(samples, count));
+                });
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private static List<User> seed(UserRepository userRepository, ContentRepository contentRepository) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<User> authors = new ArrayList<>();
+        for (int a = 0; a < AUTHORS; a++) {
+            User author = userRepository.save(new User("author" + a, "secret", Role.USER));
+            authors.add(author);
+            List<Content> contents = new ArrayList<>();
+            for (int i = 0; i < ROWS_PER_AUTHOR; i++) {
+                Status status = i % 5 == 0 ? Status.DRAFT : Status.PUBLISHED;
+                Content content = new Content("Title " + a + "-" + i, "Description ".repeat(20), status, author);
+                content.setDateCreated(start.plusMinutes((long) a * ROWS_PER_AUTHOR + i));
+                contents.add(content);
+            }
+            contentRepository.saveAll(contents);
+        }
+        return authors;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private record Result(long[] sortedNanos, long errors) {
+        long requests() {
+            return sortedNanos.length;
+        }
+
+        double percentileMs(double p) {
+            if (sortedNanos.length == 0) return Double.NaN;
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Keeps Hikari as the pool but hands it an H2 data source whose statements sleep
+     * before executing, so a connection is held for the simulated round trip.
+     */
+    private static final class SimulatedLatencyPostProcessor implements BeanPostProcessor {
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                JdbcDataSource h2 = new JdbcDataSource();
+                h2.setURL(hikari.getJdbcUrl());
+                h2.setUser(hikari.getUsername());
+                h2.setPassword(hikari.getPassword());
+                hikari.setDataSource(wrap(DataSource.class, h2));
+            }
+            return bean;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, methodArgs) -> {
+                String name = method.getName();
+                if (target instanceof Statement && name.startsWith("execute") && statementLatencyMs > 0) {
+                    Thread.sleep(statementLatencyMs);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, methodArgs);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection) return wrap(Connection.class, connection);
+                if (result instanceof CallableStatement statement) return wrap(CallableStatement.class, statement);
+                if (result instanceof PreparedStatement statement) return wrap(PreparedStatement.class, statement);
+                if (result instanceof Statement statement) return wrap(Statement.class, statement);
+                return result;
+            });
+        }
+    }
+}
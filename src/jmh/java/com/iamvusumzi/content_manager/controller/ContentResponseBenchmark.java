@@ -0,0 +1,103 @@
+package com.iamvusumzi.content_manager.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iamvusumzi.content_manager.config.CacheConfig;
+import com.iamvusumzi.content_manager.dto.ContentResponse;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response assembly for a feed page: entity to DTO mapping and Jackson
+ * serialization, with an ObjectMapper configured the way Spring Boot does.
+ * {@code mapAndWrite} and {@code writeFragments} write the same bytes to the same
+ * stream: the first is the Jackson path, the second the warm {@link ContentJsonCache}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentResponseBenchmark {
+
+    @Param({"20", "100"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private List<Content> contents;
+    private List<ContentResponse> responses;
+    private ContentJsonCache contentJsonCache;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        User author = new User("vusumzi", "secret", null);
+        author.setId(1);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        contents = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            Content content = new Content("Title " + i, "Description ".repeat(40) + i, Status.PUBLISHED, author);
+            content.setId(i + 1);
+            content.setDateCreated(start.plusMinutes(i));
+            contents.add(content);
+        }
+        responses = mapAll();
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.CONTENT_JSON, Caffeine.newBuilder().maximumSize(10_000).build());
+        contentJsonCache = new ContentJsonCache(cacheManager, objectMapper);
+        contentJsonCache.list(contents);
+        out = new ByteArrayOutputStream(64 * 1024);
+    }
+
+    @Benchmark
+    public List<ContentResponse> mapToResponse() {
+        return mapAll();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mapAll());
+    }
+
+    @Benchmark
+    public int mapAndWrite() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, mapAll());
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeFragments() throws IOException {
+        out.reset();
+        contentJsonCache.list(contents).writeTo(out);
+        return out.size();
+    }
+
+    private List<ContentResponse> mapAll() {
+        return contents.stream()
+                .map(ContentController::mapToResponse)
+                .toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.iamvusumzi.content_manager.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request with a bearer token.
+ * <ul>
+ *     <li>{@code legacyFilter} - the previous filter: five independent parse + verify cycles</li>
+ *     <li>{@code singleParse} - current filter with the verified-token cache disabled</li>
+ *     <li>{@code cachedToken} - current filter, token already verified once</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "mysupersecurejwtsecretkeymysupersecurejwtsecretkey";
+    private static final long EXPIRATION_MS = 86_400_000;
+
+    private final FilterChain noopChain = (request, response) -> { };
+
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+    private Key key;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() throws ServletException, IOException {
+        JwtUtil uncached = new JwtUtil(SECRET, EXPIRATION_MS, 0);
+        JwtUtil cached = new JwtUtil(SECRET, EXPIRATION_MS, 10_000);
+        uncachedFilter = new JwtAuthenticationFilter(uncached);
+        cachedFilter = new JwtAuthenticationFilter(cached);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+
+        request = new MockHttpServletRequest("GET", "/api/contents/my");
+        request.addHeader("Authorization", "Bearer " + cached.generateToken(1, "vusumzi", "USER"));
+
+        // Prime the cache so the measured calls are all repeat requests
+        cachedFilter.doFilter(request, new MockHttpServletResponse(), noopChain);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void legacyFilter(Blackhole blackhole) {
+        String token = request.getHeader("Authorization").substring(7);
+        if (legacyExtractClaims(token).getSubject().equals(legacyExtractClaims(token).getSubject())
+                && !legacyExtractClaims(token).getExpiration().before(new Date())) {
+            String username = legacyExtractClaims(token).getSubject();
+            String role = "ROLE_" + legacyExtractClaims(token).get("role", String.class);
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    username, null, Collections.singleton(new SimpleGrantedAuthority(role))));
+        }
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole blackhole) throws ServletException, IOException {
+        uncachedFilter.doFilter(request, new MockHttpServletResponse(), noopChain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void cachedToken(Blackhole blackhole) throws ServletException, IOException {
+        cachedFilter.doFilter(request, new MockHttpServletResponse(), noopChain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    // What JwtUtil.extractClaims did before: a new parser and a full signature check per call
+    private Claims legacyExtractClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,44 @@
+package com.iamvusumzi.content_manager.security;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "mysupersecurejwtsecretkeymysupersecurejwtsecretkey";
+    private static final long EXPIRATION_MS = 86_400_000;
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtUtil(SECRET, EXPIRATION_MS, 0);
+        cached = new JwtUtil(SECRET, EXPIRATION_MS, 10_000);
+        token = cached.generateToken(1, "vusumzi", "USER");
+        cached.extractClaims(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncached.generateToken(1, "vusumzi", "USER");
+    }
+
+    @Benchmark
+    public Object extractClaims() {
+        return uncached.extractClaims(token);
+    }
+
+    @Benchmark
+    public Object extractClaimsCached() {
+        return cached.extractClaims(token);
+    }
+}
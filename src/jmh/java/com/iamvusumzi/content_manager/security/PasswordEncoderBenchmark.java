@@ -0,0 +1,57 @@
+package com.iamvusumzi.content_manager.security;
+
+import com.iamvusumzi.content_manager.config.PasswordConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks per second on one thread, i.e. logins per second per core, for each
+ * algorithm and cost. {@code matches} is the whole CPU cost of a login; {@code matchesBounded}
+ * adds the hand-off to the hashing pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(1)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"bcrypt:8", "bcrypt:10", "bcrypt:12", "pbkdf2:310000"})
+    public String encoder;
+
+    private PasswordEncoder delegating;
+    private BoundedPasswordEncoder bounded;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String[] spec = encoder.split(":");
+        int cost = Integer.parseInt(spec[1]);
+        delegating = spec[0].equals(PasswordConfig.BCRYPT)
+                ? PasswordConfig.delegatingEncoder(PasswordConfig.BCRYPT, cost, 310_000)
+                : PasswordConfig.delegatingEncoder(PasswordConfig.PBKDF2, 10, cost);
+        bounded = new BoundedPasswordEncoder(delegating, 1, 100);
+        hash = delegating.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.destroy();
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return delegating.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean matchesBounded() {
+        return bounded.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,112 @@
+package com.iamvusumzi.content_manager.service.content.impl;
+
+import com.iamvusumzi.content_manager.ContentManagerApplication;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
+import com.iamvusumzi.content_manager.service.content.ContentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content service operations against an embedded H2 database seeded through the
+ * real repositories. Published reads go through the published content cache;
+ * the author list and draft lookups always hit the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentServiceBenchmark {
+
+    private static final int AUTHORS = 100;
+    private static final int ROWS_PER_AUTHOR = 100;
+
+    private ConfigurableApplicationContext context;
+    private ContentService contentService;
+    private String pageTwoCursor;
+    private Integer publishedId;
+    private Integer draftId;
+    private AuthenticatedUser author0;
+    private AuthenticatedUser author1;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ContentManagerApplication.class)
+                .run("--spring.profiles.active=test",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false");
+        contentService = context.getBean("userContentService", ContentService.class);
+        seed(context.getBean(UserRepository.class), context.getBean(ContentRepository.class));
+
+        ContentPage first = contentService.getAllContents(null, 20);
+        pageTwoCursor = first.getNextCursor();
+        publishedId = first.getContents().get(0).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Content> getAllContents() {
+        return contentService.getAllContents();
+    }
+
+    @Benchmark
+    public ContentPage getAllContentsPage() {
+        return contentService.getAllContents(pageTwoCursor, 20);
+    }
+
+    @Benchmark
+    public List<Content> getMyContents() {
+        return contentService.getMyContents(author0);
+    }
+
+    @Benchmark
+    public ContentPage getMyContentsPage() {
+        return contentService.getMyContents(author0, null, 20);
+    }
+
+    @Benchmark
+    public Content getPublishedContentById() {
+        return contentService.getContentById(publishedId, author1);
+    }
+
+    @Benchmark
+    public Content getDraftContentById() {
+        return contentService.getContentById(draftId, author0);
+    }
+
+    private void seed(UserRepository userRepository, ContentRepository contentRepository) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int a = 0; a < AUTHORS; a++) {
+            User author = userRepository.save(new User("author" + a, "secret", Role.USER));
+            List<Content> contents = new ArrayList<>();
+            for (int i = 0; i < ROWS_PER_AUTHOR; i++) {
+                Status status = i % 5 == 0 ? Status.DRAFT : Status.PUBLISHED;
+                Content content = new Content("Title " + a + "-" + i, "Description ".repeat(20), status, author);
+                content.setDateCreated(start.plusMinutes((long) a * ROWS_PER_AUTHOR + i));
+                contents.add(content);
+            }
+            List<Content> saved = contentRepository.saveAll(contents);
+            if (a == 0) draftId = saved.get(0).getId();
+            if (a == 0) author0 = new AuthenticatedUser(author.getId(), author.getUsername(), author.getRole());
+            if (a == 1) author1 = new AuthenticatedUser(author.getId(), author.getUsername(), author.getRole());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.iamvusumzi.content_manager.service.search.index;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ContentIndex} queries over one million synthetic documents. Words follow a Zipf
+ * distribution (s = 1) over a 50,000-word vocabulary. Each document has an 8-word title
+ * and a 30-word description. Words are made of consonant-vowel syllables, so a prefix
+ * matches a realistic spread of terms. {@code word(r)} is the r-th most frequent word.
+ * <ul>
+ *     <li>{@code frequentTerm} - rank 10, in roughly a quarter of all documents</li>
+ *     <li>{@code mediumTerm} / {@code rareTerm} - ranks 300 and 10,000</li>
+ *     <li>{@code andQuery} - frequent AND medium, intersected from the shorter list</li>
+ *     <li>{@code orQuery} - two medium terms, scores summed</li>
+ *     <li>{@code prefixQuery} - a 4-letter prefix; {@code shortPrefixQuery} a 2-letter one</li>
+ *     <li>{@code update} - re-index one existing document with entirely new text (worst case)</li>
+ *     <li>{@code editTitle} - re-index one existing document with one title word changed</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ContentIndexBenchmark {
+
+    private static final int DOCUMENTS = 1_000_000;
+    private static final int VOCABULARY = 50_000;
+    private static final int TITLE_WORDS = 8;
+    private static final int DESC_WORDS = 30;
+    private static final int TOP_K = 20;
+    private static final String CONSONANTS = "bcdfghjklmnprstvwxyz";
+    private static final String VOWELS = "aeiou";
+
+    private ContentIndex index;
+    private double[] zipfCdf;
+    private SplittableRandom random;
+    private String frequent;
+    private String medium;
+    private String rare;
+    private String prefix;
+    private String shortPrefix;
+    private int editedId;
+    private String editedTitle;
+    private String editedDesc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zipfCdf = new double[VOCABULARY];
+        double sum = 0;
+        for (int r = 0; r < VOCABULARY; r++) {
+            sum += 1.0 / (r + 1);
+            zipfCdf[r] = sum;
+        }
+        for (int r = 0; r < VOCABULARY; r++) {
+            zipfCdf[r] /= sum;
+        }
+
+        random = new SplittableRandom(42);
+        index = new ContentIndex();
+        for (int id = 1; id <= DOCUMENTS; id++) {
+            index.put(id, text(TITLE_WORDS), text(DESC_WORDS));
+        }
+
+        frequent = word(10);
+        medium = word(300);
+        rare = word(10_000);
+        prefix = word(50).substring(0, 4) + "*";
+        shortPrefix = word(50).substring(0, 2) + "*";
+
+        editedId = DOCUMENTS / 2;
+        editedTitle = text(TITLE_WORDS - 1);
+        editedDesc = text(DESC_WORDS);
+        index.put(editedId, text(1) + editedTitle, editedDesc);
+    }
+
+    @Benchmark
+    public int[] frequentTerm() {
+        return index.search(frequent, TOP_K);
+    }
+
+    @Benchmark
+    public int[] mediumTerm() {
+        return index.search(medium, TOP_K);
+    }
+
+    @Benchmark
+    public int[] rareTerm() {
+        return index.search(rare, TOP_K);
+    }
+
+    @Benchmark
+    public int[] andQuery() {
+        return index.search(frequent + " " + medium, TOP_K);
+    }
+
+    @Benchmark
+    public int[] orQuery() {
+        return index.search(medium + " OR " + word(301), TOP_K);
+    }
+
+    @Benchmark
+    public int[] prefixQuery() {
+        return index.search(prefix, TOP_K);
+    }
+
+    @Benchmark
+    public int[] shortPrefixQuery() {
+        return index.search(shortPrefix, TOP_K);
+    }
+
+    @Benchmark
+    public void update() {
+        index.put(1 + random.nextInt(DOCUMENTS), text(TITLE_WORDS), text(DESC_WORDS));
+    }
+
+    @Benchmark
+    public void editTitle() {
+        index.put(editedId, text(1) + editedTitle, editedDesc);
+    }
+
+    private String text(int words) {
+        StringBuilder text = new StringBuilder(words * 7);
+        for (int w = 0; w < words; w++) {
+            int rank = Arrays.binarySearch(zipfCdf, random.nextDouble());
+            text.append(word(rank < 0 ? -rank - 1 : rank)).append(' ');
+        }
+        return text.toString();
+    }
+
+    // Scramble rank into spelling so frequent words do not share prefixes
+    private static String word(int rank) {
+        int n = (int) ((rank * 7919L) % VOCABULARY);
+        StringBuilder word = new StringBuilder(6);
+        for (int s = 0; s < 3; s++) {
+            int syllable = n % 100;
+            word.append(CONSONANTS.charAt(syllable / 5)).append(VOWELS.charAt(syllable % 5));
+            n /= 100;
+        }
+        return word.toString();
+    }
+}
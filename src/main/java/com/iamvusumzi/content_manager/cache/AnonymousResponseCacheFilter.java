@@ -0,0 +1,290 @@
+package com.iamvusumzi.content_manager.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.cache.Cache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves anonymous content GETs from memory, ahead of Spring Security and MVC.
+ * <p>
+ * A request without an {@code Authorization} header is looked up by path, parameters and
+ * {@code Origin} (CORS headers depend on it). A miss runs the full chain, and a {@code 200}
+ * JSON response is stored with the headers the chain set, gzip-compressed. Clients that
+ * accept gzip get the stored bytes as they are. {@code If-None-Match} and
+ * {@code If-Modified-Since} are answered from the stored validators.
+ * <p>
+ * An entry is fresh for {@code fresh}, then served stale until the cache expires it. The
+ * first request to find it stale runs the chain to refresh it, and concurrent requests keep
+ * getting the stale copy meanwhile. Writes that change what the public sees clear the cache
+ * (see {@code PublishedContentCache}) and move {@code invalidations}; a response whose request
+ * overlapped such a clear is sent but not stored, since it may have been read before the write.
+ */
+public class AnonymousResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final int MIN_GZIP_BYTES = 1024;
+    private static final Set<String> UNSTORED_HEADERS = caseInsensitive(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.DATE, HttpHeaders.SET_COOKIE);
+
+    private final Cache cache;
+    private final long freshNanos;
+    private final int maxBodyBytes;
+    private final List<String> excludedPaths;
+    private final LongSupplier invalidations;
+    private final LongSupplier clock;
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+
+    public AnonymousResponseCacheFilter(Cache cache, Duration fresh, int maxBodyBytes, List<String> excludedPaths,
+                                        LongSupplier invalidations, MeterRegistry meterRegistry) {
+        this(cache, fresh, maxBodyBytes, excludedPaths, invalidations, meterRegistry, System::nanoTime);
+    }
+
+    AnonymousResponseCacheFilter(Cache cache, Duration fresh, int maxBodyBytes, List<String> excludedPaths,
+                                 LongSupplier invalidations, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.cache = cache;
+        this.freshNanos = fresh.toNanos();
+        this.maxBodyBytes = maxBodyBytes;
+        this.excludedPaths = List.copyOf(excludedPaths);
+        this.invalidations = invalidations;
+        this.clock = clock;
+        this.hits = counter(meterRegistry, "hit");
+        this.staleHits = counter(meterRegistry, "stale");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) return true;
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null) return true;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return excludedPaths.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = key(request);
+        CachedResponse cached = cache.get(key, CachedResponse.class);
+        if (cached != null) {
+            if (cached.isFresh(clock.getAsLong(), freshNanos)) {
+                hits.increment();
+                serve(cached, request, response);
+                return;
+            }
+            if (!cached.startRevalidation()) {
+                staleHits.increment();
+                serve(cached, request, response);
+                return;
+            }
+        }
+        misses.increment();
+        long generation = invalidations.getAsLong();
+
+        Set<String> outerHeaders = caseInsensitive(response.getHeaderNames().toArray(String[]::new));
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        CachedResponse stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            stored = capture(request, wrapper, response, outerHeaders);
+        } finally {
+            if (stored != null && invalidations.getAsLong() == generation) {
+                cache.put(key, stored);
+                // A clear between the check and the put may have missed the entry; drop it ourselves
+                if (invalidations.getAsLong() != generation) cache.evict(key);
+            } else if (cached != null) {
+                cached.abandonRevalidation();
+            }
+        }
+
+        if (stored != null && stored.isGzipped()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                wrapper.resetBuffer();
+                writeGzipped(stored, response);
+                return;
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private CachedResponse capture(HttpServletRequest request, ContentCachingResponseWrapper wrapper,
+                                   HttpServletResponse response, Set<String> outerHeaders) {
+        if (request.isAsyncStarted() || wrapper.getStatus() != HttpServletResponse.SC_OK) return null;
+        String contentType = wrapper.getContentType();
+        if (contentType == null || !contentType.startsWith("application/json")) return null;
+        if (response.getHeader(HttpHeaders.SET_COOKIE) != null) return null;
+        if (wrapper.getContentSize() > maxBodyBytes) return null;
+
+        List<Map.Entry<String, String>> headers = new ArrayList<>();
+        for (String name : new TreeSet<>(response.getHeaderNames())) {
+            if (outerHeaders.contains(name) || UNSTORED_HEADERS.contains(name)) continue;
+            for (String value : response.getHeaders(name)) {
+                headers.add(Map.entry(name, value));
+            }
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        boolean gzipped = body.length >= MIN_GZIP_BYTES;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return new CachedResponse(contentType, headers, gzipped ? gzip(body) : body, gzipped,
+                response.getHeader(HttpHeaders.ETAG), lastModified(response.getHeader(HttpHeaders.LAST_MODIFIED)),
+                pattern != null ? pattern.toString() : null, clock.getAsLong());
+    }
+
+    private void serve(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // MVC never sees a hit, so tag it for http.server.requests and RequestMetricsFilter here
+        String pattern = cached.getPattern();
+        if (pattern != null) {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            ServerHttpObservationFilter.findObservationContext(request)
+                    .ifPresent(context -> context.setPathPattern(pattern));
+        }
+        for (Map.Entry<String, String> header : cached.getHeaders()) {
+            response.addHeader(header.getKey(), header.getValue());
+        }
+        if (cached.isGzipped()) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (notModified(cached, request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(cached.getContentType());
+        if (cached.isGzipped() && acceptsGzip(request)) {
+            writeGzipped(cached, response);
+            return;
+        }
+        byte[] body = cached.isGzipped() ? gunzip(cached.getBody()) : cached.getBody();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void writeGzipped(CachedResponse cached, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(cached.getBody().length);
+        response.getOutputStream().write(cached.getBody());
+    }
+
+    // Same rules as the controllers: If-None-Match wins, compared weakly; If-Modified-Since otherwise
+    private static boolean notModified(CachedResponse cached, HttpServletRequest request) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            if (cached.getEtag() == null) return false;
+            String etag = stripWeak(cached.getEtag());
+            for (String candidate : ifNoneMatch.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || stripWeak(trimmed).equals(etag)) return true;
+            }
+            return false;
+        }
+        if (cached.getLastModified() < 0) return false;
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && cached.getLastModified() / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    // Parameters are sorted and encoded, so their order in the URL does not split entries
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(encode(parameter.getKey())).append('=').append(encode(value));
+                separator = '&';
+            }
+        }
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+        return key.append('|').append(origin == null ? "" : origin).toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static long lastModified(String header) {
+        if (header == null) return -1;
+        try {
+            return ZonedDateTime.parse(header, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Set<String> caseInsensitive(String... names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(List.of(names));
+        return set;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("api.response-cache.requests")
+                .description("Anonymous GETs by how the response cache answered them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.iamvusumzi.content_manager.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A stored 200 response: its content type, the headers the application set, and the body,
+ * gzip-compressed when {@code gzipped}. {@code pattern} is the route MVC matched, if any, so
+ * hits are tagged like the request that stored them. {@code storedAt} is on the filter's
+ * nanosecond clock.
+ */
+public final class CachedResponse {
+
+    private final String contentType;
+    private final List<Map.Entry<String, String>> headers;
+    private final byte[] body;
+    private final boolean gzipped;
+    private final String etag;
+    private final long lastModified;
+    private final String pattern;
+    private final long storedAt;
+    private final AtomicBoolean revalidating = new AtomicBoolean();
+
+    public CachedResponse(String contentType, List<Map.Entry<String, String>> headers, byte[] body,
+                          boolean gzipped, String etag, long lastModified, String pattern, long storedAt) {
+        this.contentType = contentType;
+        this.headers = List.copyOf(headers);
+        this.body = body;
+        this.gzipped = gzipped;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.pattern = pattern;
+        this.storedAt = storedAt;
+    }
+
+    public String getContentType() { return contentType; }
+    public List<Map.Entry<String, String>> getHeaders() { return headers; }
+    public byte[] getBody() { return body; }
+    public boolean isGzipped() { return gzipped; }
+    public String getEtag() { return etag; }
+    public long getLastModified() { return lastModified; }
+    public String getPattern() { return pattern; }
+
+    public boolean isFresh(long now, long freshNanos) {
+        return now - storedAt < freshNanos;
+    }
+
+    // Only the first caller to see the entry stale gets true; the others are served the stale copy
+    public boolean startRevalidation() {
+        return revalidating.compareAndSet(false, true);
+    }
+
+    public void abandonRevalidation() {
+        revalidating.set(false);
+    }
+
+    // Approximate heap cost, for the cache's size bound
+    public int weight() {
+        int weight = body.length + 256;
+        for (Map.Entry<String, String> header : headers) {
+            weight += 2 * (header.getKey().length() + header.getValue().length()) + 32;
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,44 @@
+package com.iamvusumzi.content_manager.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iamvusumzi.content_manager.cache.CachedResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PUBLISHED_CONTENT = "publishedContent";
+    public static final String PUBLISHED_FEED = "publishedFeed";
+    public static final String CONTENT_JSON = "contentJson";
+    public static final String ANONYMOUS_RESPONSES = "anonymousResponses";
+
+    // Caches registered here are bound to Micrometer by actuator (cache.gets, cache.evictions, ...)
+    @Bean
+    public CacheManager cacheManager(@Value("${app.cache.content.spec}") String contentSpec,
+                                     @Value("${app.cache.feed.spec}") String feedSpec,
+                                     @Value("${app.cache.content-json.spec}") String contentJsonSpec,
+                                     @Value("${app.response-cache.fresh-ms:5000}") long responseFreshMs,
+                                     @Value("${app.response-cache.stale-ms:30000}") long responseStaleMs,
+                                     @Value("${app.response-cache.max-size-mb:64}") long responseMaxSizeMb) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PUBLISHED_CONTENT, Caffeine.from(contentSpec).build());
+        cacheManager.registerCustomCache(PUBLISHED_FEED, Caffeine.from(feedSpec).build());
+        cacheManager.registerCustomCache(CONTENT_JSON, Caffeine.from(contentJsonSpec).build());
+        // Bounded by bytes rather than entries, since a response can be a whole feed
+        cacheManager.registerCustomCache(ANONYMOUS_RESPONSES, Caffeine.newBuilder()
+                .maximumWeight(responseMaxSizeMb * 1024 * 1024)
+                .weigher((Object key, Object value) -> ((CachedResponse) value).weight())
+                .expireAfterWrite(Duration.ofMillis(responseFreshMs + responseStaleMs))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
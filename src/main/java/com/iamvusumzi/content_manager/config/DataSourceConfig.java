@@ -0,0 +1,93 @@
+package com.iamvusumzi.content_manager.config;
+
+import com.iamvusumzi.content_manager.datasource.ReadWriteRoutingDataSource;
+import com.iamvusumzi.content_manager.datasource.ReadYourWritesWindow;
+import com.iamvusumzi.content_manager.datasource.ReplicaDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Only active when {@code app.datasource.replicas.urls} lists at least one replica; otherwise
+ * Boot's single pooled data source is used as before. The primary pool keeps every
+ * {@code spring.datasource.*} setting, and each replica gets the same settings with its own
+ * URL and pool size.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class DataSourceConfig {
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(@Value("${app.datasource.read-your-writes-ms:3000}") long windowMs) {
+        return new ReadYourWritesWindow(Duration.ofMillis(windowMs), 100_000);
+    }
+
+    // Repeats cache evictions once the replicas have caught up; Spring shuts it down with the context
+    @Bean
+    public ThreadPoolTaskScheduler replicaEvictionScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("content-cache-replica-evict-");
+        scheduler.setDaemon(true);
+        return scheduler;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 Environment environment,
+                                 ReadYourWritesWindow readYourWritesWindow,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.datasource.replicas.urls}") List<String> replicaUrls,
+                                 @Value("${app.datasource.replicas.username:}") String replicaUsername,
+                                 @Value("${app.datasource.replicas.password:}") String replicaPassword,
+                                 @Value("${app.datasource.replicas.maximum-pool-size:20}") int replicaPoolSize,
+                                 @Value("${app.datasource.replicas.connection-timeout-ms:1000}") long replicaConnectionTimeoutMs,
+                                 @Value("${app.datasource.replicas.cooldown-ms:5000}") long cooldownMs) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) continue;
+            HikariDataSource replica = pool(properties, environment, url.trim(), "replica-" + (replicas.size() + 1));
+            if (!replicaUsername.isBlank()) replica.setUsername(replicaUsername);
+            if (!replicaPassword.isBlank()) replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setMinimumIdle(Math.min(replica.getMinimumIdle(), replicaPoolSize));
+            // Fail over quickly, and start even while a replica is unreachable
+            replica.setConnectionTimeout(replicaConnectionTimeoutMs);
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+
+        ReplicaDataSource readOnly = new ReplicaDataSource(primary, List.copyOf(replicas), cooldownMs,
+                readYourWritesWindow::pinnedToPrimary, meterRegistry);
+        return new ReadWriteRoutingDataSource(primary, replicas, readOnly);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        return pool;
+    }
+}
@@ -0,0 +1,50 @@
+package com.iamvusumzi.content_manager.config;
+
+import com.iamvusumzi.content_manager.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+
+/**
+ * New hashes are written as {@code {algorithm}hash} with the configured algorithm and cost.
+ * Hashes written earlier, including the unprefixed bcrypt ones from before this config,
+ * still verify, and {@code upgradeEncoding} reports them so login can rewrite them.
+ */
+@Configuration
+public class PasswordConfig {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${app.password.algorithm:bcrypt}") String algorithm,
+                                           @Value("${app.password.bcrypt.strength:10}") int bcryptStrength,
+                                           @Value("${app.password.pbkdf2.iterations:310000}") int pbkdf2Iterations,
+                                           @Value("${app.password.hashing-threads:0}") int hashingThreads,
+                                           @Value("${app.password.hashing-queue:100}") int hashingQueue) {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegatingEncoder(algorithm, bcryptStrength, pbkdf2Iterations),
+                threads, hashingQueue);
+    }
+
+    public static DelegatingPasswordEncoder delegatingEncoder(String algorithm, int bcryptStrength, int pbkdf2Iterations) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcrypt,
+                PBKDF2, new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations,
+                        Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Unknown app.password.algorithm: " + algorithm);
+        }
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+}
@@ -0,0 +1,44 @@
+package com.iamvusumzi.content_manager.config;
+
+import com.iamvusumzi.content_manager.security.AdaptiveConcurrencyLimiter;
+import com.iamvusumzi.content_manager.security.RateLimitFilter;
+import com.iamvusumzi.content_manager.security.RateLimitRule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(@Value("${app.rate-limit.enabled:true}") boolean rateLimitEnabled,
+                                           @Value("${app.rate-limit.rules:}") List<String> rules,
+                                           @Value("${app.rate-limit.max-keys:100000}") long maxKeys,
+                                           @Value("${app.load-shedding.enabled:true}") boolean loadSheddingEnabled,
+                                           @Value("${app.load-shedding.initial-limit:100}") int initialLimit,
+                                           @Value("${app.load-shedding.min-limit:20}") int minLimit,
+                                           @Value("${app.load-shedding.max-limit:1000}") int maxLimit,
+                                           @Value("${app.load-shedding.latency-threshold-ms:1000}") long latencyThresholdMs,
+                                           @Value("${app.load-shedding.backoff-ratio:0.9}") double backoffRatio,
+                                           MeterRegistry meterRegistry) {
+        List<RateLimitRule> parsed = rateLimitEnabled
+                ? rules.stream().filter(rule -> !rule.isBlank()).map(rule -> RateLimitRule.parse(rule, maxKeys)).toList()
+                : List.of();
+        AdaptiveConcurrencyLimiter limiter = loadSheddingEnabled
+                ? new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThresholdMs, backoffRatio)
+                : null;
+        return new RateLimitFilter(parsed, limiter, meterRegistry);
+    }
+
+    // Runs inside the API security chain only, not a second time as a servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -0,0 +1,39 @@
+package com.iamvusumzi.content_manager.config;
+
+import com.iamvusumzi.content_manager.cache.AnonymousResponseCacheFilter;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class ResponseCacheConfig {
+
+    // Just ahead of the Spring Security filter chain, so a hit skips authentication, rate limits and MVC
+    @Bean
+    public FilterRegistrationBean<AnonymousResponseCacheFilter> anonymousResponseCacheFilter(
+            CacheManager cacheManager,
+            PublishedContentCache publishedContentCache,
+            MeterRegistry meterRegistry,
+            @Value("${app.response-cache.enabled:true}") boolean enabled,
+            @Value("${app.response-cache.fresh-ms:5000}") long freshMs,
+            @Value("${app.response-cache.max-body-kb:1024}") int maxBodyKb,
+            @Value("${app.response-cache.excluded-paths:}") List<String> excludedPaths) {
+        AnonymousResponseCacheFilter filter = new AnonymousResponseCacheFilter(
+                cacheManager.getCache(CacheConfig.ANONYMOUS_RESPONSES), Duration.ofMillis(freshMs), maxBodyKb * 1024,
+                excludedPaths.stream().filter(path -> !path.isBlank()).map(String::trim).toList(),
+                publishedContentCache::responseGeneration, meterRegistry);
+        FilterRegistrationBean<AnonymousResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/contents/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
@@ -1,92 +1,273 @@
 package com.iamvusumzi.content_manager.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iamvusumzi.content_manager.dto.ContentBatchItemResponse;
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
+import com.iamvusumzi.content_manager.dto.ContentPageResponse;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
 import com.iamvusumzi.content_manager.dto.ContentResponse;
+import com.iamvusumzi.content_manager.dto.ContentSearchResponse;
+import com.iamvusumzi.content_manager.exception.UnauthorizedException;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentStamp;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
 import com.iamvusumzi.content_manager.service.content.ContentService;
 import com.iamvusumzi.content_manager.service.content.impl.AdminContentServiceImpl;
 import com.iamvusumzi.content_manager.service.content.impl.UserContentServiceImpl;
+import com.iamvusumzi.content_manager.service.content.stream.ContentStreamBroadcaster;
+import com.iamvusumzi.content_manager.service.search.ContentSearchPage;
+import com.iamvusumzi.content_manager.service.search.ContentSearchService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("api/contents")
 public class ContentController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_QUERY_LENGTH = 200;
+
     private final UserContentServiceImpl userContentService;
     private final AdminContentServiceImpl  adminContentService;
+    private final ContentSearchService contentSearchService;
+    private final ContentStreamBroadcaster contentStreamBroadcaster;
+    private final Validator validator;
+    private final ContentJsonCache contentJsonCache;
+    private final ObjectWriter exportWriter;
+
+    @Value("${app.pagination.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.batch.max-size:1000}")
+    private int maxBatchSize;
 
     public ContentController(@Qualifier("userContentService") ContentService userContentService,
-                             @Qualifier("adminContentService") ContentService adminContentService) {
+                             @Qualifier("adminContentService") ContentService adminContentService,
+                             ContentSearchService contentSearchService,
+                             ContentStreamBroadcaster contentStreamBroadcaster,
+                             Validator validator,
+                             ContentJsonCache contentJsonCache,
+                             ObjectMapper objectMapper) {
         this.userContentService = ( UserContentServiceImpl ) userContentService;
         this.adminContentService = (AdminContentServiceImpl) adminContentService;
+        this.contentSearchService = contentSearchService;
+        this.contentStreamBroadcaster = contentStreamBroadcaster;
+        this.validator = validator;
+        this.contentJsonCache = contentJsonCache;
+        // Let the servlet buffer decide when to send a chunk instead of flushing after every line
+        this.exportWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @PostMapping
     public ResponseEntity<ContentResponse> createContent(@Valid @RequestBody ContentRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        AuthenticatedUser user = currentUser();
 
         ContentService service = getContentService();
 
-        Content createdContent = service.createContent(username, request);
+        Content createdContent = service.createContent(user, request);
         ContentResponse response = mapToResponse(createdContent);
         return ResponseEntity
                 .created(URI.create("/api/contents/" + createdContent.getId()))
                 .body(response);
     }
 
+    // With If-Match the update only applies to the version the client saw; otherwise 412
     @PutMapping("/{id}")
     public ResponseEntity<ContentResponse> updateContent(
             @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ContentRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        AuthenticatedUser user = currentUser();
 
         ContentService service = getContentService();
 
-        Content updatedContent = service.updateContent(username, id, request);
-        return ResponseEntity.ok(mapToResponse(updatedContent));
+        Long expectedVersion = ContentValidators.expectedVersion(id, ifMatch);
+        Content updatedContent = service.updateContent(user, id, request, expectedVersion);
+        return ResponseEntity.ok()
+                .eTag(ContentValidators.etag(updatedContent))
+                .body(mapToResponse(updatedContent));
 
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteContent(@PathVariable Integer id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        AuthenticatedUser user = currentUser();
 
         ContentService service = getContentService();
-        service.deleteContent(username, id);
+        service.deleteContent(user, id);
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<ContentBatchItemResponse>> applyBatch(@RequestBody List<ContentBatchOperation> operations) {
+        if (operations.isEmpty()) throw new IllegalArgumentException("Batch must contain at least one operation");
+        if (operations.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + maxBatchSize + " operations");
+        }
+        AuthenticatedUser user = currentUser();
+
+        ContentService service = getContentService();
+
+        // Items failing the same validation as the single-item endpoints are answered here;
+        // the rest go to the service together so the author is resolved and rows are written once
+        ContentBatchItemResponse[] responses = new ContentBatchItemResponse[operations.size()];
+        List<ContentBatchOperation> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            ContentBatchOperation operation = operations.get(i);
+            String error = validateBatchOperation(operation);
+            if (error != null) {
+                responses[i] = new ContentBatchItemResponse(i, operation.getOp(), operation.getId(),
+                        HttpStatus.BAD_REQUEST.value(), error, null);
+            } else {
+                accepted.add(operation);
+                acceptedIndexes.add(i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<ContentBatchResult> results = service.applyBatch(user, accepted);
+            for (int j = 0; j < results.size(); j++) {
+                int index = acceptedIndexes.get(j);
+                responses[index] = mapToBatchItemResponse(index, accepted.get(j), results.get(j));
+            }
+        }
+        return ResponseEntity.ok(Arrays.asList(responses));
+    }
+
     @GetMapping
-    public ResponseEntity<List<ContentResponse>> getAllContents() {
+    public ResponseEntity<JsonFragments> getAllContents(WebRequest webRequest) {
 
         ContentService service = getContentService();
 
         List<Content> contents = service.getAllContents();
-        List<ContentResponse> response = contents.stream()
-                .map(this::mapToResponse)
-                .toList();
-        if(response.isEmpty()) {
+        if(contents.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
-        return ResponseEntity.ok(response);
+
+        String etag = ContentValidators.etag(contents, null);
+        long lastModified = ContentValidators.lastModified(contents);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .body(contentJsonCache.list(contents));
+    }
+
+    @GetMapping(params = "size")
+    public ResponseEntity<JsonFragments> getAllContentsPage(
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+
+        ContentService service = getContentService();
+
+        ContentPage page = service.getAllContents(cursor, clampPageSize(size));
+
+        String etag = ContentValidators.etag(page.getContents(), page.getNextCursor());
+        long lastModified = ContentValidators.lastModified(page.getContents());
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (!page.getContents().isEmpty()) {
+            ok.lastModified(lastModified);
+        }
+        return ok.body(contentJsonCache.page(page));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ContentSearchResponse> searchContents(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (query.isBlank()) throw new IllegalArgumentException("Search query cannot be empty");
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query cannot exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (page < 0) throw new IllegalArgumentException("Page cannot be negative");
+
+        ContentSearchPage results = contentSearchService.search(query.strip(), page, clampPageSize(size));
+        List<ContentResponse> items = results.getContents().stream()
+                .map(ContentController::mapToResponse)
+                .toList();
+        return ResponseEntity.ok(new ContentSearchResponse(items, results.getPage(), results.getSize(), results.hasNext()));
+    }
+
+    /**
+     * Every published item as NDJSON, one {@link ContentResponse} per line. Rows are written
+     * as they come off the database cursor, so neither the entities nor the response body
+     * are ever held in memory as a whole.
+     */
+    @GetMapping("/export")
+    public void exportContents(HttpServletResponse response) throws IOException {
+        ContentService service = getContentService();
+
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = exportWriter.createGenerator(response.getOutputStream())) {
+            // Lines are terminated explicitly; the default root separator would prefix each with a space
+            generator.setRootValueSeparator(null);
+            service.exportPublished(content -> {
+                try {
+                    exportWriter.writeValue(generator, mapToResponse(content));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Live feed of public changes as Server-Sent Events: {@code published} for content that is
+     * new or edited in the public feed, {@code removed} for content deleted or unpublished.
+     * A reconnecting client's {@code Last-Event-ID} resumes where it left off; when that is no
+     * longer possible it gets {@code reset} and should reload the feed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamContents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return contentStreamBroadcaster.subscribe(lastEventId);
     }
 
     @GetMapping("/my")
     public ResponseEntity<List<ContentResponse>> getMyContents() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        AuthenticatedUser user = requireUser();
 
         ContentService service = getContentService();
 
-        List<Content> contents = service.getMyContents(username);
+        List<Content> contents = service.getMyContents(user);
         List<ContentResponse> response = contents.stream()
-                .map(this::mapToResponse)
+                .map(ContentController::mapToResponse)
                 .toList();
         if(response.isEmpty()) {
             return ResponseEntity.noContent().build();
@@ -94,19 +275,47 @@ public class ContentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/my", params = "size")
+    public ResponseEntity<ContentPageResponse> getMyContentsPage(
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        AuthenticatedUser user = requireUser();
+
+        ContentService service = getContentService();
+
+        ContentPage page = service.getMyContents(user, cursor, clampPageSize(size));
+        return ResponseEntity.ok(mapToPageResponse(page));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ContentResponse> getContentById(@PathVariable Integer id) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+    public ResponseEntity<ContentResponse> getContentById(@PathVariable Integer id, WebRequest webRequest) {
+        AuthenticatedUser user = currentUser();
 
         ContentService service = getContentService();
 
-        Content content = service.getContentById(id, username);
-        ContentResponse response = mapToResponse(content);
+        // Revalidating public content only needs the stamp, not the description column
+        if (isConditional(webRequest)) {
+            Optional<ContentStamp> stamp = service.findPublishedStamp(id);
+            if (stamp.isPresent() && webRequest.checkNotModified(
+                    ContentValidators.etag(stamp.get()), ContentValidators.lastModified(stamp.get()))) {
+                return null;
+            }
+        }
+
+        Content content = service.getContentById(id, user);
 
-        return ResponseEntity.ok(response);
+        String etag = ContentValidators.etag(content);
+        long lastModified = ContentValidators.lastModified(content);
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(lastModified)
+                .body(mapToResponse(content));
     }
 
-    private ContentResponse mapToResponse(Content content) {
+    static ContentResponse mapToResponse(Content content) {
         ContentResponse dto = new ContentResponse();
         dto.setId(content.getId());
         dto.setTitle(content.getTitle());
@@ -118,6 +327,66 @@ public class ContentController {
         return dto;
     }
 
+    private ContentPageResponse mapToPageResponse(ContentPage page) {
+        List<ContentResponse> items = page.getContents().stream()
+                .map(ContentController::mapToResponse)
+                .toList();
+        return new ContentPageResponse(items, page.getNextCursor());
+    }
+
+    private ContentBatchItemResponse mapToBatchItemResponse(int index, ContentBatchOperation operation,
+                                                            ContentBatchResult result) {
+        HttpStatus status = switch (result.getOutcome()) {
+            case CREATED -> HttpStatus.CREATED;
+            case UPDATED -> HttpStatus.OK;
+            case DELETED -> HttpStatus.NO_CONTENT;
+            case INVALID -> HttpStatus.BAD_REQUEST;
+            case NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case FORBIDDEN -> HttpStatus.FORBIDDEN;
+        };
+        ContentResponse content = result.getContent() == null ? null : mapToResponse(result.getContent());
+        return new ContentBatchItemResponse(index, operation.getOp(), result.getContentId(),
+                status.value(), result.getError(), content);
+    }
+
+    private String validateBatchOperation(ContentBatchOperation operation) {
+        if (operation.getOp() == null) return "Operation is required";
+
+        String op = operation.getOp().toUpperCase();
+        if (!op.equals("CREATE") && !op.equals("UPDATE")) return null;
+        if (operation.getContent() == null) return "Content is required for " + op;
+
+        Set<ConstraintViolation<ContentRequest>> violations = validator.validate(operation.getContent());
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private int clampPageSize(int size) {
+        if (size < 1) throw new IllegalArgumentException("Page size must be at least 1");
+        return Math.min(size, maxPageSize);
+    }
+
+    // Null for anonymous callers, who may still read published content
+    private AuthenticatedUser currentUser() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal instanceof AuthenticatedUser user ? user : null;
+    }
+
+    // GET /my is open to anonymous callers like every content GET, but has nobody to look up
+    private AuthenticatedUser requireUser() {
+        AuthenticatedUser user = currentUser();
+        if (user == null) throw new UnauthorizedException("Authentication required");
+        return user;
+    }
+
     private ContentService getContentService() {
         String role = SecurityContextHolder.getContext().getAuthentication().getAuthorities().iterator().next().getAuthority();
         if (role.equals("ROLE_ADMIN")) {
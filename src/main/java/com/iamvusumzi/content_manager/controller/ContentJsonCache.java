@@ -0,0 +1,124 @@
+package com.iamvusumzi.content_manager.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.iamvusumzi.content_manager.config.CacheConfig;
+import com.iamvusumzi.content_manager.dto.ContentResponse;
+import com.iamvusumzi.content_manager.metrics.RequestTimings;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Each published item's {@link ContentResponse} JSON, kept as UTF-8 bytes so feed responses
+ * are assembled without mapping or serializing the item again. Entries are keyed by id,
+ * {@code dateUpdated} and version, which every write changes: an edited item misses and
+ * its old entry ages out, so nothing is evicted. Drafts are serialized on every request.
+ * <p>
+ * Items are serialized here, in the handler, rather than by the message converter, so the
+ * time spent assembling a body is added to the request's serialization timing as well.
+ */
+@Component
+public class ContentJsonCache {
+
+    private static final byte[] ARRAY_START = bytes("[");
+    private static final byte[] ARRAY_END = bytes("]");
+    private static final byte[] PAGE_START = bytes("{\"items\":[");
+    private static final byte[] PAGE_NEXT = bytes("],\"next\":");
+    private static final byte[] PAGE_END = bytes("}");
+
+    private final Cache cache;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter itemWriter;
+
+    public ContentJsonCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cache = cacheManager.getCache(CacheConfig.CONTENT_JSON);
+        this.objectMapper = objectMapper;
+        this.itemWriter = objectMapper.writerFor(ContentResponse.class);
+    }
+
+    // Same JSON as List<ContentResponse>
+    public JsonFragments list(List<Content> contents) {
+        long start = System.nanoTime();
+        try {
+            return new JsonFragments(ARRAY_START, fragments(contents), ARRAY_END);
+        } finally {
+            RequestTimings.addSerialization(System.nanoTime() - start);
+        }
+    }
+
+    // Same JSON as ContentPageResponse
+    public JsonFragments page(ContentPage page) {
+        long start = System.nanoTime();
+        try {
+            byte[] next = concat(PAGE_NEXT, serialize(page.getNextCursor()), PAGE_END);
+            return new JsonFragments(PAGE_START, fragments(page.getContents()), next);
+        } finally {
+            RequestTimings.addSerialization(System.nanoTime() - start);
+        }
+    }
+
+    byte[] fragment(Content content) {
+        if (content.getStatus() != Status.PUBLISHED) {
+            return serialize(content);
+        }
+        Key key = new Key(content.getId(), content.getDateUpdated(), content.getVersion());
+        byte[] cached = cache.get(key, byte[].class);
+        if (cached != null) return cached;
+
+        byte[] json = serialize(content);
+        cache.put(key, json);
+        return json;
+    }
+
+    private List<byte[]> fragments(List<Content> contents) {
+        List<byte[]> fragments = new ArrayList<>(contents.size());
+        for (Content content : contents) {
+            fragments.add(fragment(content));
+        }
+        return fragments;
+    }
+
+    private byte[] serialize(Content content) {
+        try {
+            return itemWriter.writeValueAsBytes(ContentController.mapToResponse(content));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize content " + content.getId(), e);
+        }
+    }
+
+    private byte[] serialize(String value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cursor", e);
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) length += part.length;
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Key(Integer id, LocalDateTime dateUpdated, Long version) {}
+}
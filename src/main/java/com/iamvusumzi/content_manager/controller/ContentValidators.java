@@ -0,0 +1,91 @@
+package com.iamvusumzi.content_manager.controller;
+
+import com.iamvusumzi.content_manager.exception.PreconditionFailedException;
+import com.iamvusumzi.content_manager.model.ContentStamp;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * Strong HTTP validators (ETag / Last-Modified) for content responses. Every
+ * write bumps the version and sets dateUpdated, so (id, version) identifies a
+ * single item and (id, last change) an item within a feed.
+ */
+final class ContentValidators {
+
+    private ContentValidators() {}
+
+    static String etag(ContentStamp stamp) {
+        return "\"" + stamp.getId() + "-" + stamp.getVersion() + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} header for content {@code id} asks for, or null when
+     * there is no header or it is {@code *}. Weak tags never match (RFC 9110 13.1.1), and
+     * a header none of whose tags belong to this content fails the precondition outright.
+     */
+    static Long expectedVersion(Integer id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() == prefix.length()) continue;
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // Not one of ours; try the next tag
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current ETag");
+    }
+
+    /**
+     * A feed ETag changes when any item changes, appears or disappears, or when
+     * the page boundary ({@code next}) moves. Hashed the same way as Spring's
+     * ShallowEtagHeaderFilter, but over the stamps instead of the serialized body.
+     */
+    static String etag(Collection<? extends ContentStamp> stamps, String next) {
+        MessageDigest digest = md5();
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
+        for (ContentStamp stamp : stamps) {
+            entry.clear();
+            entry.putInt(stamp.getId()).putLong(lastChangeMillis(stamp));
+            digest.update(entry.array());
+        }
+        if (next != null) digest.update(next.getBytes(StandardCharsets.UTF_8));
+        return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+    }
+
+    static long lastModified(ContentStamp stamp) {
+        return lastChangeMillis(stamp);
+    }
+
+    static long lastModified(Collection<? extends ContentStamp> stamps) {
+        long latest = -1;
+        for (ContentStamp stamp : stamps) {
+            latest = Math.max(latest, lastChangeMillis(stamp));
+        }
+        return latest;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long lastChangeMillis(ContentStamp stamp) {
+        LocalDateTime changed = stamp.getDateUpdated() != null ? stamp.getDateUpdated() : stamp.getDateCreated();
+        if (changed == null) return 0;
+        return changed.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,40 @@
+package com.iamvusumzi.content_manager.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A JSON document made of already serialized UTF-8 parts: {@code prefix}, the items
+ * separated by commas, then {@code suffix}. {@link JsonFragmentsHttpMessageConverter}
+ * copies the bytes to the response as they are.
+ */
+public final class JsonFragments {
+
+    private final byte[] prefix;
+    private final List<byte[]> items;
+    private final byte[] suffix;
+
+    public JsonFragments(byte[] prefix, List<byte[]> items, byte[] suffix) {
+        this.prefix = prefix;
+        this.items = items;
+        this.suffix = suffix;
+    }
+
+    public long contentLength() {
+        long length = prefix.length + suffix.length + Math.max(items.size() - 1, 0);
+        for (byte[] item : items) {
+            length += item.length;
+        }
+        return length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(prefix);
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) out.write(',');
+            out.write(items.get(i));
+        }
+        out.write(suffix);
+    }
+}
@@ -0,0 +1,33 @@
+package com.iamvusumzi.content_manager.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The application's data source when read replicas are configured. Connections are only
+ * fetched at the first statement, by which time the transaction manager has marked them
+ * read-only or not: {@code @Transactional(readOnly = true)} work goes to the
+ * {@link ReplicaDataSource}, everything else to the primary pool.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                      ReplicaDataSource readOnly) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        setReadOnlyDataSource(readOnly);
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
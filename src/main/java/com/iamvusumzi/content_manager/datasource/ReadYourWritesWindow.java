@@ -0,0 +1,53 @@
+package com.iamvusumzi.content_manager.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Sends a user's reads to the primary for {@code window} after they commit a write, so a
+ * lagging replica never hides their own change from them. Other users' reads, and writes
+ * made outside a request (the outbox worker), are unaffected.
+ * <p>
+ * Boot registers this with the transaction manager, which reports every commit.
+ */
+public class ReadYourWritesWindow implements TransactionExecutionListener {
+
+    private final Cache<Integer, Boolean> recentWriters;
+    private final boolean enabled;
+
+    public ReadYourWritesWindow(Duration window, long maxUsers) {
+        this.enabled = !window.isZero() && !window.isNegative();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(enabled ? window : Duration.ofNanos(1))
+                .build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (!enabled || commitFailure != null || transaction.isReadOnly()) return;
+        Integer userId = currentUserId();
+        if (userId != null) recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean pinnedToPrimary() {
+        if (!enabled) return false;
+        Integer userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    private static Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.iamvusumzi.content_manager.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out read-only connections from the replicas in turn.
+ * <p>
+ * A replica that fails to give a connection is skipped for {@code cooldownMs} and the next
+ * one is tried, so one failed attempt is all a dead replica costs until it is due for a
+ * retry. When every replica is down, or {@code pinnedToPrimary} says the caller must see
+ * its own recent writes, the connection comes from the primary instead.
+ */
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long cooldownNanos;
+    private final BooleanSupplier pinnedToPrimary;
+    private final LongSupplier clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter failovers;
+    private final Counter primaryReads;
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, long cooldownMs,
+                             BooleanSupplier pinnedToPrimary, MeterRegistry meterRegistry) {
+        this(primary, replicas, cooldownMs, pinnedToPrimary, meterRegistry, System::nanoTime);
+    }
+
+    ReplicaDataSource(DataSource primary, List<DataSource> replicas, long cooldownMs,
+                      BooleanSupplier pinnedToPrimary, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.cooldownNanos = cooldownMs * 1_000_000;
+        this.pinnedToPrimary = pinnedToPrimary;
+        this.clock = clock;
+        this.failovers = Counter.builder("db.replica.failovers")
+                .description("Replica connection attempts that failed and moved on")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("db.replica.primary.reads")
+                .description("Read-only transactions served by the primary (read-your-writes or no healthy replica)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    // Same replica choice, with the caller's credentials on whichever pool serves it
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(Connect connect) throws SQLException {
+        if (!pinnedToPrimary.getAsBoolean()) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (replica.down && clock.getAsLong() - replica.downSince < cooldownNanos) continue;
+                try {
+                    Connection connection = connect.to(replica.dataSource);
+                    replica.down = false;
+                    return connection;
+                } catch (SQLException e) {
+                    replica.downSince = clock.getAsLong();
+                    replica.down = true;
+                    failovers.increment();
+                }
+            }
+        }
+        primaryReads.increment();
+        return connect.to(primary);
+    }
+
+    @FunctionalInterface
+    private interface Connect {
+        Connection to(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean down;
+        // When the last attempt failed; only meaningful while down
+        private volatile long downSince;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.iamvusumzi.content_manager.dto;
+
+/**
+ * Result of one batch item, in request order. {@code status} is the HTTP status the
+ * equivalent single-item request would have returned.
+ */
+public class ContentBatchItemResponse {
+    private int index;
+    private String op;
+    private Integer id;
+    private int status;
+    private String error;
+    private ContentResponse content;
+
+    public ContentBatchItemResponse(int index, String op, Integer id, int status, String error, ContentResponse content) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+        this.content = content;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public int getStatus() { return status; }
+    public void setStatus(int status) { this.status = status; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public ContentResponse getContent() { return content; }
+    public void setContent(ContentResponse content) { this.content = content; }
+}
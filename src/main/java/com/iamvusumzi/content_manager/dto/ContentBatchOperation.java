@@ -0,0 +1,24 @@
+package com.iamvusumzi.content_manager.dto;
+
+/**
+ * One item of a batch request. {@code op} is CREATE, UPDATE or DELETE; {@code id} is
+ * required for UPDATE and DELETE, {@code content} for CREATE and UPDATE.
+ */
+public class ContentBatchOperation {
+    private String op;
+    private Integer id;
+    private ContentRequest content;
+
+    public String getOp() { return op; }
+    public void setOp(String op) {
+        this.op = op;
+    }
+    public Integer getId() { return id; }
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    public ContentRequest getContent() { return content; }
+    public void setContent(ContentRequest content) {
+        this.content = content;
+    }
+}
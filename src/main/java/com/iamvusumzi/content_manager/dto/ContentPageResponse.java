@@ -0,0 +1,18 @@
+package com.iamvusumzi.content_manager.dto;
+
+import java.util.List;
+
+public class ContentPageResponse {
+    private List<ContentResponse> items;
+    private String next;
+
+    public ContentPageResponse(List<ContentResponse> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<ContentResponse> getItems() { return items; }
+    public void setItems(List<ContentResponse> items) { this.items = items; }
+    public String getNext() { return next; }
+    public void setNext(String next) { this.next = next; }
+}
@@ -0,0 +1,26 @@
+package com.iamvusumzi.content_manager.dto;
+
+import java.util.List;
+
+public class ContentSearchResponse {
+    private List<ContentResponse> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+
+    public ContentSearchResponse(List<ContentResponse> items, int page, int size, boolean hasNext) {
+        this.items = items;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    public List<ContentResponse> getItems() { return items; }
+    public void setItems(List<ContentResponse> items) { this.items = items; }
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+}
@@ -0,0 +1,11 @@
+package com.iamvusumzi.content_manager.exception;
+
+/**
+ * An {@code If-Match} precondition did not hold: the content changed since the
+ * version the client last saw. Mapped to 412 by {@link GlobalExceptionHandler}.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.iamvusumzi.content_manager.exception;
+
+/**
+ * A bounded resource (e.g. the password hashing pool) is saturated. Mapped to 503 with
+ * {@code Retry-After} by {@link GlobalExceptionHandler}, so the client backs off instead
+ * of the request waiting in an unbounded queue.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
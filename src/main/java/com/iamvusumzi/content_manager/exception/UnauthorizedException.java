@@ -0,0 +1,11 @@
+package com.iamvusumzi.content_manager.exception;
+
+/**
+ * The endpoint needs a signed-in user but the request carried no valid token.
+ * Mapped to 401 by {@link GlobalExceptionHandler}.
+ */
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
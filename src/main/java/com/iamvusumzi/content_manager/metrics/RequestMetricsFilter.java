@@ -0,0 +1,84 @@
+package com.iamvusumzi.content_manager.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breaks each API request's latency down by cause, tagged like {@code http.server.requests}
+ * so the two line up per endpoint:
+ * <ul>
+ *     <li>{@code http.server.requests.db}: time spent executing SQL</li>
+ *     <li>{@code http.server.requests.jwt}: time spent verifying the bearer token</li>
+ *     <li>{@code http.server.requests.serialization}: time spent writing the JSON body</li>
+ *     <li>{@code db.statements.per.request}: how many statements and batches ran</li>
+ * </ul>
+ * A request that goes async (the live stream) is not recorded; its latency is the
+ * connection's lifetime.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimings.clear();
+            if (!request.isAsyncStarted()) record(request, timings);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestTimings timings) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+
+        // Always recorded, so a request served without touching the database counts as zero
+        Timer.builder("http.server.requests.db")
+                .description("Time spent executing SQL per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(timings.getStatementNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("db.statements.per.request")
+                .description("JDBC statements and batches executed per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(timings.getStatements());
+
+        if (timings.getJwtVerifications() > 0) {
+            Timer.builder("http.server.requests.jwt")
+                    .description("Time spent verifying the bearer token per request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(timings.getJwtNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (timings.getSerializations() > 0) {
+            Timer.builder("http.server.requests.serialization")
+                    .description("Time spent building and writing the JSON response body per request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(timings.getSerializationNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.iamvusumzi.content_manager.metrics;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Where one API request spent its time, collected on the request thread and recorded by
+ * {@link RequestMetricsFilter} once the response is written. Code running outside a request,
+ * such as the outbox worker, finds no current timings and records nothing.
+ * <p>
+ * Work done for a request on another thread is only counted if it is handed over with
+ * {@link #propagate}, or, when several requests wait for one load, {@link #recordShared}
+ * and {@link #addShared}.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long statementNanos;
+    private int jwtVerifications;
+    private long jwtNanos;
+    private int serializations;
+    private long serializationNanos;
+
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task the current request hands to another thread and waits for, so what the
+     * task records there is added to this request. Outside a request the task is returned as is.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) return task;
+        return () -> {
+            RequestTimings previous = CURRENT.get();
+            CURRENT.set(timings);
+            try {
+                return task.call();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    // Timings for a load other requests may wait on, filled in by recordShared
+    public static RequestTimings forSharedLoad() {
+        return new RequestTimings();
+    }
+
+    /**
+     * Runs a load that other requests may wait on, recording into {@code shared} and then
+     * adding {@code shared} to the current request. Waiters add it to theirs with
+     * {@link #addShared} once the load has finished, so each counts the time it waited on.
+     */
+    public static <T> T recordShared(RequestTimings shared, Supplier<T> load) {
+        RequestTimings timings = CURRENT.get();
+        CURRENT.set(shared);
+        try {
+            return load.get();
+        } finally {
+            CURRENT.set(timings);
+            if (timings != null) timings.add(shared);
+        }
+    }
+
+    public static void addShared(RequestTimings shared) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) timings.add(shared);
+    }
+
+    private void add(RequestTimings other) {
+        statements += other.statements;
+        statementNanos += other.statementNanos;
+        jwtVerifications += other.jwtVerifications;
+        jwtNanos += other.jwtNanos;
+        serializations += other.serializations;
+        serializationNanos += other.serializationNanos;
+    }
+
+    public static void addStatement(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) return;
+        timings.statements++;
+        timings.statementNanos += nanos;
+    }
+
+    public static void addJwtVerification(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) return;
+        timings.jwtVerifications++;
+        timings.jwtNanos += nanos;
+    }
+
+    public static void addSerialization(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) return;
+        timings.serializations++;
+        timings.serializationNanos += nanos;
+    }
+
+    int getStatements() {
+        return statements;
+    }
+
+    long getStatementNanos() {
+        return statementNanos;
+    }
+
+    int getJwtVerifications() {
+        return jwtVerifications;
+    }
+
+    long getJwtNanos() {
+        return jwtNanos;
+    }
+
+    int getSerializations() {
+        return serializations;
+    }
+
+    long getSerializationNanos() {
+        return serializationNanos;
+    }
+}
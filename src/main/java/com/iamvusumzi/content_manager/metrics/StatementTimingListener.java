@@ -0,0 +1,34 @@
+package com.iamvusumzi.content_manager.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Times every JDBC statement and batch a Hibernate session executes and adds it to the
+ * current request's {@link RequestTimings}. Hibernate creates one per session, from
+ * {@code hibernate.session.events.auto}.
+ */
+public class StatementTimingListener implements SessionEventListener {
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimings.addStatement(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimings.addStatement(System.nanoTime() - batchStart);
+    }
+}
@@ -4,9 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-public class Content {
+public class Content implements ContentStamp {
+    // Pooled sequence: Hibernate reserves 50 ids per round trip, which lets inserts be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "content_id_seq")
+    @SequenceGenerator(name = "content_id_seq", sequenceName = "content_id_seq", allocationSize = 50)
     private Integer id;
 
     private String title;
@@ -21,6 +23,10 @@ public class Content {
 
     private LocalDateTime dateUpdated;
 
+    // Bumped by every write. The ETag carries it, and If-Match on update is checked against it.
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
@@ -80,6 +86,10 @@ public class Content {
         this.dateUpdated = dateUpdated;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(int id) {
         this.id = id;
     }
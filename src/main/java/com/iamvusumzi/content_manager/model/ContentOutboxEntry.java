@@ -0,0 +1,88 @@
+package com.iamvusumzi.content_manager.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "content_outbox")
+public class ContentOutboxEntry {
+    // Pooled like content ids, so a batch of changes inserts its outbox rows in JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "content_outbox_id_seq")
+    @SequenceGenerator(name = "content_outbox_id_seq", sequenceName = "content_outbox_id_seq", allocationSize = 50)
+    private Long id;
+
+    private Integer contentId;
+
+    // The content's version after this change, null for a delete; orders changes to one content
+    private Long contentVersion;
+
+    private String title;
+
+    @Column(name = "description")
+    private String desc;
+
+    // Null for a delete
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // The status this change replaced; null for new content
+    @Enumerated(EnumType.STRING)
+    private Status previousStatus;
+
+    private LocalDateTime createdAt;
+
+    // Delivery position, assigned after commit in commit order; null until then
+    private Long seq;
+
+    public ContentOutboxEntry() {}
+    public ContentOutboxEntry(Integer contentId, Long contentVersion, String title, String desc, Status status,
+                              Status previousStatus) {
+        this.contentId = contentId;
+        this.contentVersion = contentVersion;
+        this.title = title;
+        this.desc = desc;
+        this.status = status;
+        this.previousStatus = previousStatus;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getContentId() {
+        return contentId;
+    }
+
+    public Long getContentVersion() {
+        return contentVersion;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+}
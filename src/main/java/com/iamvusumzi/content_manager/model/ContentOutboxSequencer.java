@@ -0,0 +1,31 @@
+package com.iamvusumzi.content_manager.model;
+
+import jakarta.persistence.*;
+
+// The one row whose lock serializes handing out outbox delivery positions across instances
+@Entity
+@Table(name = "content_outbox_sequencer")
+public class ContentOutboxSequencer {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long lastSeq;
+
+    public ContentOutboxSequencer() {}
+    public ContentOutboxSequencer(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+    public void setLastSeq(long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+}
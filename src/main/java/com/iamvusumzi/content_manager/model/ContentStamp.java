@@ -0,0 +1,15 @@
+package com.iamvusumzi.content_manager.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns HTTP validators are derived from. Implemented by {@link Content}
+ * and used as a projection so conditional GETs can skip the description column.
+ */
+public interface ContentStamp {
+    Integer getId();
+    Status getStatus();
+    LocalDateTime getDateCreated();
+    LocalDateTime getDateUpdated();
+    Long getVersion();
+}
@@ -0,0 +1,17 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+
+import java.util.function.Consumer;
+
+public interface ContentExportRepository {
+
+    /**
+     * Hands every content with the given status, newest first and with its author loaded,
+     * to {@code action} one row at a time. Must run inside a transaction.
+     *
+     * @return the number of rows visited
+     */
+    long forEachByStatus(Status status, Consumer<Content> action);
+}
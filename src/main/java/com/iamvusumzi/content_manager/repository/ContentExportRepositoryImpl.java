@@ -0,0 +1,46 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads through a forward-only cursor, {@value #FETCH_SIZE} rows per round trip, and
+ * detaches each row once the caller is done with it. The persistence context never
+ * holds more than the current row, so memory stays flat however many rows are exported.
+ */
+public class ContentExportRepositoryImpl implements ContentExportRepository {
+
+    static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long forEachByStatus(Status status, Consumer<Content> action) {
+        Session session = entityManager.unwrap(Session.class);
+        long count = 0;
+        try (ScrollableResults<Content> rows = session.createSelectionQuery(
+                        "select c from Content c left join fetch c.author " +
+                                "where c.status = :status order by c.dateCreated desc, c.id desc", Content.class)
+                .setParameter("status", status)
+                .setFetchSize(FETCH_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                Content content = rows.get();
+                action.accept(content);
+                session.detach(content);
+                if (content.getAuthor() != null) session.detach(content.getAuthor());
+                count++;
+            }
+        }
+        return count;
+    }
+}
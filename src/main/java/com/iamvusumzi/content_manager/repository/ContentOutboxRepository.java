@@ -0,0 +1,30 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.ContentOutboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ContentOutboxRepository extends JpaRepository<ContentOutboxEntry, Long> {
+
+    // Committed rows still waiting for a delivery position
+    @Query("SELECT e FROM ContentOutboxEntry e WHERE e.seq IS NULL ORDER BY e.id")
+    List<ContentOutboxEntry> findUnsequenced(Limit limit);
+
+    @Query("SELECT e FROM ContentOutboxEntry e WHERE e.seq IS NULL AND e.contentId IN :contentIds")
+    List<ContentOutboxEntry> findUnsequencedByContentIdIn(@Param("contentIds") Collection<Integer> contentIds);
+
+    // Delivery order: every instance reads the same rows in the same order from its own position
+    @Query("SELECT e FROM ContentOutboxEntry e WHERE e.seq > :after ORDER BY e.seq")
+    List<ContentOutboxEntry> findSequencedAfter(@Param("after") long after, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM ContentOutboxEntry e WHERE e.seq IS NOT NULL AND e.createdAt < :before")
+    int deleteSequencedBefore(@Param("before") LocalDateTime before);
+}
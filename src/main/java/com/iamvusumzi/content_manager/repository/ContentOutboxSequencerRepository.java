@@ -0,0 +1,16 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.ContentOutboxSequencer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ContentOutboxSequencerRepository extends JpaRepository<ContentOutboxSequencer, Integer> {
+
+    // A no-op write takes the row lock until the caller's transaction ends, so one instance sequences
+    // at a time; portable where the dialect's SELECT ... FOR NO KEY UPDATE is not. Returns 0 without the row.
+    @Modifying
+    @Query("UPDATE ContentOutboxSequencer s SET s.lastSeq = s.lastSeq WHERE s.id = :id")
+    int lock(@Param("id") Integer id);
+}
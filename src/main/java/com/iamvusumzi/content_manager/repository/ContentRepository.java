@@ -1,12 +1,106 @@
 package com.iamvusumzi.content_manager.repository;
 
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentStamp;
 import com.iamvusumzi.content_manager.model.Status;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ContentRepository extends JpaRepository<Content, Integer> {
+// Every read that ends up in a ContentResponse loads the author in the same query,
+// otherwise mapping author.username issues one extra users SELECT per row, or, with
+// open-in-view off, fails once the transaction has ended.
+// Feed, page and search reads only ever produce responses, so their rows are loaded
+// read-only (no dirty-checking snapshot) and the query skips the pre-query auto-flush.
+public interface ContentRepository extends JpaRepository<Content, Integer>, ContentExportRepository,
+        ContentWriteRepository {
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Optional<Content> findById(Integer id);
+
+    // Batch updates and deletes load their targets here and map them to responses afterwards
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Content> findAllById(Iterable<Integer> ids);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
     List<Content> findByStatusOrderByDateCreatedDesc(Status status);
-    List<Content> findByAuthorIdOrderByDateCreatedDesc(Integer authorId);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    // Derived, this filters on a second join to users rather than on content.author_id
+    @Query("select c from Content c where c.author.id = :authorId order by c.dateCreated desc")
+    List<Content> findByAuthorIdOrderByDateCreatedDesc(@Param("authorId") Integer authorId);
+
+    // Keyset pages over (date_created, id): each page seeks past the last row of the previous one.
+    // The row comparison is what lets Postgres use it as an index condition; the equivalent
+    // "a < x or (a = x and b < y)" is only applied as a filter after scanning every newer row.
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select c from Content c where c.status = :status order by c.dateCreated desc, c.id desc")
+    List<Content> findFirstPageByStatus(@Param("status") Status status, Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select c from Content c where c.status = :status " +
+            "and (c.dateCreated, c.id) < (:dateCreated, :id) " +
+            "order by c.dateCreated desc, c.id desc")
+    List<Content> findPageByStatusAfter(@Param("status") Status status,
+                                        @Param("dateCreated") LocalDateTime dateCreated,
+                                        @Param("id") Integer id,
+                                        Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select c from Content c where c.author.id = :authorId order by c.dateCreated desc, c.id desc")
+    List<Content> findFirstPageByAuthorId(@Param("authorId") Integer authorId, Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select c from Content c where c.author.id = :authorId " +
+            "and (c.dateCreated, c.id) < (:dateCreated, :id) " +
+            "order by c.dateCreated desc, c.id desc")
+    List<Content> findPageByAuthorIdAfter(@Param("authorId") Integer authorId,
+                                          @Param("dateCreated") LocalDateTime dateCreated,
+                                          @Param("id") Integer id,
+                                          Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    List<Content> findByIdIn(Collection<Integer> ids);
+
+    // Postgres only: search_vector and its GIN index come from db/vendor/postgresql/V4__content_search.sql
+    @Query(value = "select c.id from content c, websearch_to_tsquery('english', :query) q " +
+            "where c.status = 'PUBLISHED' and c.search_vector @@ q " +
+            "order by ts_rank_cd(c.search_vector, q) desc, c.id desc " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Integer> searchPublishedIds(@Param("query") String query,
+                                     @Param("limit") int limit,
+                                     @Param("offset") long offset);
+
+    // Conditional updates and deletes are in ContentWriteRepository: the ownership check is part
+    // of the statement, so nothing can change between the check and the write, and each returns
+    // the status the row had before it.
+
+    @Query("select c.id as id, c.status as status, c.dateCreated as dateCreated, c.dateUpdated as dateUpdated, " +
+            "c.version as version from Content c where c.id = :id")
+    Optional<ContentStamp> findStampById(@Param("id") Integer id);
 }
@@ -0,0 +1,35 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ContentWriteRepository {
+
+    /**
+     * Updates the content if {@code authorId} wrote it and, when {@code version} is given, it
+     * is still at that version. A null title, desc or status leaves that column as it is.
+     * Bulk updates skip Hibernate's versioning, so the version is bumped here.
+     * Must run inside a transaction.
+     *
+     * @return the status the row had before the update, or empty if nothing matched
+     */
+    Optional<Status> updateReturningPreviousStatus(Integer id, Integer authorId, Long version, String title,
+                                                   String desc, Status status, LocalDateTime dateUpdated);
+
+    /**
+     * Deletes the content if {@code authorId} wrote it. Must run inside a transaction.
+     *
+     * @return the status the deleted row had, or empty if nothing matched
+     */
+    Optional<Status> deleteReturningStatus(Integer id, Integer authorId);
+
+    /**
+     * Deletes the content if {@code authorId} wrote it or it has {@code orStatus}.
+     * Must run inside a transaction.
+     *
+     * @return the status the deleted row had, or empty if nothing matched
+     */
+    Optional<Status> deleteReturningStatus(Integer id, Integer authorId, Status orStatus);
+}
@@ -0,0 +1,99 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Conditional writes that also report what they replaced, in the same statement, so the
+ * caller needs neither a read beforehand nor a lock to keep that read true. Postgres
+ * returns it with {@code RETURNING}; H2, used by the tests, has no {@code RETURNING} but
+ * can select from the {@code OLD TABLE} of a write.
+ */
+public class ContentWriteRepositoryImpl implements ContentWriteRepository {
+
+    private static final String UPDATE_SET = "title = coalesce(:title, c.title), " +
+            "description = coalesce(:desc, c.description), status = coalesce(:status, c.status), " +
+            "date_updated = :dateUpdated, version = c.version + 1";
+
+    private static final String UPDATE_MATCH =
+            "c.author_id = :authorId and (cast(:version as bigint) is null or c.version = :version)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean h2;
+
+    @Override
+    public Optional<Status> updateReturningPreviousStatus(Integer id, Integer authorId, Long version, String title,
+                                                          String desc, Status status, LocalDateTime dateUpdated) {
+        Session session = entityManager.unwrap(Session.class);
+        // RETURNING only sees the new row, so Postgres reads the old status from a locked self-join.
+        // The lock is taken before the row is updated, so no other write can land in between.
+        String sql = isH2(session)
+                ? "select status from old table (update content c set " + UPDATE_SET +
+                        " where c.id = :id and " + UPDATE_MATCH + ")"
+                : "update content c set " + UPDATE_SET +
+                        " from (select id, status from content where id = :id for update) old" +
+                        " where c.id = old.id and " + UPDATE_MATCH + " returning old.status";
+        return statusOf(query(session, sql)
+                .setParameter("id", id)
+                .setParameter("authorId", authorId)
+                .setParameter("version", version, Long.class)
+                .setParameter("title", title, String.class)
+                .setParameter("desc", desc, String.class)
+                .setParameter("status", status == null ? null : status.name(), String.class)
+                .setParameter("dateUpdated", dateUpdated, LocalDateTime.class), session);
+    }
+
+    @Override
+    public Optional<Status> deleteReturningStatus(Integer id, Integer authorId) {
+        Session session = entityManager.unwrap(Session.class);
+        String sql = deleteReturningStatus(session, "delete from content where id = :id and author_id = :authorId");
+        return statusOf(query(session, sql)
+                .setParameter("id", id)
+                .setParameter("authorId", authorId), session);
+    }
+
+    @Override
+    public Optional<Status> deleteReturningStatus(Integer id, Integer authorId, Status orStatus) {
+        Session session = entityManager.unwrap(Session.class);
+        String sql = deleteReturningStatus(session,
+                "delete from content where id = :id and (author_id = :authorId or status = :status)");
+        return statusOf(query(session, sql)
+                .setParameter("id", id)
+                .setParameter("authorId", authorId)
+                .setParameter("status", orStatus.name()), session);
+    }
+
+    private String deleteReturningStatus(Session session, String delete) {
+        return isH2(session) ? "select status from old table (" + delete + ")" : delete + " returning status";
+    }
+
+    private static NativeQuery<String> query(Session session, String sql) {
+        return session.createNativeQuery(sql, String.class).addSynchronizedEntityClass(Content.class);
+    }
+
+    private static Optional<Status> statusOf(NativeQuery<String> query, Session session) {
+        List<String> statuses = query.getResultList();
+        // Like @Modifying(clearAutomatically = true): entities loaded before the write are stale now
+        session.clear();
+        return statuses.stream().findFirst().map(Status::valueOf);
+    }
+
+    private boolean isH2(Session session) {
+        Boolean cached = h2;
+        if (cached == null) {
+            cached = session.doReturningWork(connection -> "H2".equals(connection.getMetaData().getDatabaseProductName()));
+            h2 = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,59 @@
+package com.iamvusumzi.content_manager.security;
+
+import com.iamvusumzi.content_manager.model.Role;
+
+import java.security.Principal;
+import java.util.Objects;
+
+/**
+ * Principal placed in the {@code SecurityContext} by {@link JwtAuthenticationFilter}.
+ * Everything comes from the verified token, so services can check authorship against
+ * {@code id} without loading the user.
+ */
+public final class AuthenticatedUser implements Principal {
+
+    private final Integer id;
+    private final String username;
+    private final Role role;
+
+    public AuthenticatedUser(Integer id, String username, Role role) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.username = username;
+        this.role = role;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    // What Authentication.getName() returns
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AuthenticatedUser other)) return false;
+        return id.equals(other.id) && Objects.equals(username, other.username) && role == other.role;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, username, role);
+    }
+
+    @Override
+    public String toString() {
+        return username + "#" + id;
+    }
+}
@@ -1,7 +1,11 @@
 package com.iamvusumzi.content_manager.security;
 
+import com.iamvusumzi.content_manager.metrics.RequestTimings;
+import com.iamvusumzi.content_manager.model.Role;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,19 +36,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         String token = extractJwtFromRequest(request);
         try {
-            if (token != null && jwtUtil.validateToken(token, jwtUtil.extractUsername(token))) {
-                String username = jwtUtil.extractUsername(token);
-                String role = jwtUtil.extractRole(token);
-
-                if (role != null && !role.startsWith("ROLE_")) {
-                    role = "ROLE_" + role;
+            if (token != null) {
+                // One verification per request; expired or forged tokens throw below
+                long start = System.nanoTime();
+                Claims claims;
+                try {
+                    claims = jwtUtil.extractClaims(token);
+                } finally {
+                    RequestTimings.addJwtVerification(System.nanoTime() - start);
                 }
+                AuthenticatedUser principal = toPrincipal(claims);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                username,
+                                principal,
                                 null,
-                                Collections.singleton(new SimpleGrantedAuthority(role))
+                                Collections.singleton(new SimpleGrantedAuthority("ROLE_" + principal.getRole().name()))
                         );
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
@@ -60,6 +67,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     }
 
+    // Tokens issued before the user id claim existed are rejected; the client logs in again
+    private AuthenticatedUser toPrincipal(Claims claims) {
+        Integer userId = claims.get(JwtUtil.USER_ID_CLAIM, Integer.class);
+        String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+        if (userId == null || role == null) throw new MalformedJwtException("Token is missing required claims");
+
+        try {
+            return new AuthenticatedUser(userId, claims.getSubject(), Role.valueOf(role.replaceFirst("^ROLE_", "")));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Unknown role: " + role);
+        }
+    }
+
     private String extractJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -6,43 +6,81 @@ import java.util.Date;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtUtil {
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+
     private final Key key;
     private final long expirationInMs;
+    private final JwtParser parser;
+
+    // Tokens whose signature has already been verified, dropped when the token itself expires.
+    // A max size of 0 disables the cache and every call verifies the signature.
+    private final Cache<String, Claims> verifiedTokens;
+    private final boolean cacheEnabled;
 
     public JwtUtil(@Value("${jwt.secret}") String secret,
-                   @Value("${jwt.expiration-ms}") long expirationInMs) {
+                   @Value("${jwt.expiration-ms}") long expirationInMs,
+                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
         this.expirationInMs = expirationInMs;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+        this.cacheEnabled = cacheMaxSize > 0;
     }
 
-    public String generateToken(String username, String role){
+    public String generateToken(Integer userId, String username, String role){
         return Jwts.builder()
                 .setSubject(username)
-                .claim("role", role)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expirationInMs))
                 .signWith(key)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims. A token seen before is answered
+     * from the cache without re-checking the signature; expired or tampered tokens
+     * throw the usual {@link io.jsonwebtoken.JwtException} subtypes.
+     */
     public Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token).getBody();
+        if (!cacheEnabled) return parser.parseClaimsJws(token).getBody();
+
+        Claims cached = verifiedTokens.getIfPresent(token);
+        if (cached != null) return cached;
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, claims);
+        }
+        return claims;
     }
 
     public String extractUsername(String token) {
         return extractClaims(token).getSubject();
     }
     public String extractRole(String token){
-        return extractClaims(token).get("role", String.class);
+        return extractClaims(token).get(ROLE_CLAIM, String.class);
+    }
+    public Integer extractUserId(String token) {
+        return extractClaims(token).get(USER_ID_CLAIM, Integer.class);
     }
     public boolean validateToken(String token, String username) {
         return extractUsername(token).equals(username) && !isTokenExpired(token);
@@ -50,4 +88,22 @@ public class JwtUtil {
     private boolean isTokenExpired(String token) {
         return extractClaims(token).getExpiration().before(new Date());
     }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, remainingMs) * 1_000_000;
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,123 @@
+package com.iamvusumzi.content_manager.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protects the API from bursts, after {@link JwtAuthenticationFilter} so the caller is known.
+ * <p>
+ * The first {@link RateLimitRule} matching the request takes a token from the caller's
+ * bucket: the user id for authenticated requests, the client address otherwise. An empty
+ * bucket gets {@code 429} with {@code Retry-After}. Admitted requests then pass the
+ * {@link AdaptiveConcurrencyLimiter}; when it is full the request gets {@code 503}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<RateLimitRule> rules;
+    // Null when load shedding is disabled
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public RateLimitFilter(List<RateLimitRule> rules, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           MeterRegistry meterRegistry) {
+        this.rules = List.copyOf(rules);
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimited = Counter.builder("api.rate-limit.rejected")
+                .description("Requests answered 429 because the caller's bucket was empty")
+                .register(meterRegistry);
+        this.shed = Counter.builder("api.load-shedding.rejected")
+                .description("Requests answered 503 because the concurrency limit was reached")
+                .register(meterRegistry);
+        if (concurrencyLimiter != null) {
+            Gauge.builder("api.load-shedding.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("api.load-shedding.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("API requests currently admitted")
+                    .register(meterRegistry);
+        }
+    }
+
+    // Preflights and everything outside the API (actuator) are never limited
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        for (RateLimitRule rule : rules) {
+            if (!rule.matches(request)) continue;
+            long waitNanos = rule.tryAcquire(clientKey(request));
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                reject(response, 429, retryAfter, "Too many requests, please retry later");
+                return;
+            }
+            break;
+        }
+
+        if (concurrencyLimiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, 1, "Service temporarily unavailable");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                concurrencyLimiter.release();
+            } else {
+                int status = response.getStatus();
+                boolean dropped = status == HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                        || status == HttpServletResponse.SC_GATEWAY_TIMEOUT;
+                concurrencyLimiter.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+
+    // Behind a proxy, set server.forward-headers-strategy so this is the client and not the proxy
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
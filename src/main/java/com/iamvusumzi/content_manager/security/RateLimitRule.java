@@ -0,0 +1,108 @@
+package com.iamvusumzi.content_manager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client for one route, written as
+ * {@code <METHOD|*> <path pattern> <permits>/<s|m|h> [burst=<n>]}, e.g.
+ * {@code POST /api/auth/login 10/m burst=5}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it would be full
+ * again (the GCRA form of a token bucket), so taking a token is one compare-and-set and
+ * never locks. A bucket left alone for {@code burst} intervals is full, the same as a
+ * missing one, so buckets expire after that much idle time; {@code maxKeys} caps the rest.
+ */
+public final class RateLimitRule {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+    private static final Map<String, Duration> PERIODS =
+            Map.of("s", Duration.ofSeconds(1), "m", Duration.ofMinutes(1), "h", Duration.ofHours(1));
+
+    private final String spec;
+    private final String method;
+    private final String pattern;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    RateLimitRule(String spec, String method, String pattern, long permits, Duration period, long burst,
+                  long maxKeys, LongSupplier clock) {
+        this.spec = spec;
+        this.method = method;
+        this.pattern = pattern;
+        this.intervalNanos = period.toNanos() / permits;
+        this.toleranceNanos = intervalNanos * burst;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(toleranceNanos, TimeUnit.NANOSECONDS)
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    public static RateLimitRule parse(String spec, long maxKeys) {
+        return parse(spec, maxKeys, System::nanoTime);
+    }
+
+    static RateLimitRule parse(String spec, long maxKeys, LongSupplier clock) {
+        String[] parts = spec.trim().split("\\s+");
+        if (parts.length < 3 || parts.length > 4) throw invalid(spec);
+        String[] rate = parts[2].split("/");
+        if (rate.length != 2 || !PERIODS.containsKey(rate[1])) throw invalid(spec);
+
+        try {
+            long permits = Long.parseLong(rate[0]);
+            long burst = permits;
+            if (parts.length == 4) {
+                if (!parts[3].startsWith("burst=")) throw invalid(spec);
+                burst = Long.parseLong(parts[3].substring("burst=".length()));
+            }
+            if (permits < 1 || burst < 1) throw invalid(spec);
+            return new RateLimitRule(spec.trim(), parts[0].toUpperCase(), parts[1], permits, PERIODS.get(rate[1]),
+                    burst, maxKeys, clock);
+        } catch (NumberFormatException e) {
+            throw invalid(spec);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String spec) {
+        return new IllegalArgumentException("Invalid app.rate-limit.rules entry '" + spec
+                + "', expected '<METHOD|*> <path> <permits>/<s|m|h> [burst=<n>]'");
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        if (!method.equals("*") && !method.equals(request.getMethod())) return false;
+        return PATHS.match(pattern, request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    /**
+     * Takes a token from {@code key}'s bucket. Returns 0 when one was available, otherwise
+     * how many nanoseconds until the next one is.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) return wait;
+            if (bucket.compareAndSet(fullAt, next)) return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
@@ -40,7 +40,7 @@ public class AdminAuthServiceImp extends BaseAuthService {
         user.setRole(Role.ADMIN);
         userRepository.save(user);
 
-        String token =  jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        String token =  jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name());
         return new AuthResponse(token, user.getUsername(),  user.getRole().name());
 
     }
@@ -32,7 +32,7 @@ public class UserAuthServiceImpl extends BaseAuthService {
         user.setRole(Role.USER);
         userRepository.save(user);
 
-        String token =  jwtUtil.generateToken(user.getUsername(), user.getRole().name());
+        String token =  jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole().name());
         return new AuthResponse(token, user.getUsername(),  user.getRole().name());
     }
 }
@@ -0,0 +1,46 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.iamvusumzi.content_manager.model.Content;
+
+/**
+ * Outcome of one batch operation. {@code content} is set for creates and updates,
+ * {@code error} for every outcome that did not change anything.
+ */
+public class ContentBatchResult {
+
+    public enum Outcome { CREATED, UPDATED, DELETED, INVALID, NOT_FOUND, FORBIDDEN }
+
+    private final Outcome outcome;
+    private final Integer contentId;
+    private final Content content;
+    private final String error;
+
+    private ContentBatchResult(Outcome outcome, Integer contentId, Content content, String error) {
+        this.outcome = outcome;
+        this.contentId = contentId;
+        this.content = content;
+        this.error = error;
+    }
+
+    public static ContentBatchResult created(Content content) {
+        return new ContentBatchResult(Outcome.CREATED, null, content, null);
+    }
+
+    public static ContentBatchResult updated(Content content) {
+        return new ContentBatchResult(Outcome.UPDATED, content.getId(), content, null);
+    }
+
+    public static ContentBatchResult deleted(Integer contentId) {
+        return new ContentBatchResult(Outcome.DELETED, contentId, null, null);
+    }
+
+    public static ContentBatchResult failed(Outcome outcome, Integer contentId, String error) {
+        return new ContentBatchResult(outcome, contentId, null, error);
+    }
+
+    public Outcome getOutcome() { return outcome; }
+    // Created content only gets its id once the batch is persisted
+    public Integer getContentId() { return content != null ? content.getId() : contentId; }
+    public Content getContent() { return content; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,14 @@
+package com.iamvusumzi.content_manager.service.content;
+
+/**
+ * Follows content changes after they commit, on the outbox dispatcher's thread rather than
+ * the request's. Every instance receives every change, including those written through
+ * other instances. A change may arrive more than once, so handling must be idempotent:
+ * delivery positions live in memory, so after a restart a consumer can receive changes its
+ * startup load already reflects, and a change one consumer fails on is delivered again to
+ * the consumers that already took it. Throwing makes the dispatcher retry the change later.
+ */
+public interface ContentChangeConsumer {
+
+    void onContentChanged(ContentChangedEvent event);
+}
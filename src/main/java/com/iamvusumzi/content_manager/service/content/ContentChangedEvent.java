@@ -0,0 +1,88 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentOutboxEntry;
+import com.iamvusumzi.content_manager.model.Status;
+
+/**
+ * Recorded in the outbox by the content services whenever content is created, updated or
+ * deleted, and handed to every {@link ContentChangeConsumer} after the write commits.
+ * It carries a snapshot of the fields, so a consumer never touches a detached entity.
+ * {@code status} and {@code version} are null for a delete. {@code previousStatus} is the
+ * status the change replaced, null for new content.
+ */
+public class ContentChangedEvent {
+
+    private final Integer contentId;
+    private final Long version;
+    private final String title;
+    private final String desc;
+    private final Status status;
+    private final Status previousStatus;
+
+    private ContentChangedEvent(Integer contentId, Long version, String title, String desc, Status status,
+                                Status previousStatus) {
+        this.contentId = contentId;
+        this.version = version;
+        this.title = title;
+        this.desc = desc;
+        this.status = status;
+        this.previousStatus = previousStatus;
+    }
+
+    // New content
+    public static ContentChangedEvent saved(Content content) {
+        return saved(content, null);
+    }
+
+    public static ContentChangedEvent saved(Content content, Status previousStatus) {
+        return new ContentChangedEvent(content.getId(), content.getVersion(), content.getTitle(), content.getDesc(),
+                content.getStatus(), previousStatus);
+    }
+
+    public static ContentChangedEvent deleted(Integer contentId, Status previousStatus) {
+        return new ContentChangedEvent(contentId, null, null, null, null, previousStatus);
+    }
+
+    public static ContentChangedEvent of(ContentOutboxEntry entry) {
+        return of(entry, entry.getPreviousStatus());
+    }
+
+    // Several changes delivered as one: the newest row's snapshot, and the status before the oldest
+    public static ContentChangedEvent of(ContentOutboxEntry newest, Status previousStatus) {
+        return new ContentChangedEvent(newest.getContentId(), newest.getContentVersion(), newest.getTitle(),
+                newest.getDesc(), newest.getStatus(), previousStatus);
+    }
+
+    public Integer getContentId() {
+        return contentId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public boolean isDeleted() {
+        return status == null;
+    }
+
+    public boolean wasPublished() {
+        return previousStatus == Status.PUBLISHED;
+    }
+}
@@ -0,0 +1,50 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.iamvusumzi.content_manager.model.Content;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over (date_created, id). Clients only ever echo back
+ * the encoded value they received as {@code next}.
+ */
+public final class ContentCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime dateCreated;
+    private final Integer id;
+
+    public ContentCursor(LocalDateTime dateCreated, Integer id) {
+        this.dateCreated = dateCreated;
+        this.id = id;
+    }
+
+    public static ContentCursor of(Content content) {
+        return new ContentCursor(content.getDateCreated(), content.getId());
+    }
+
+    public static ContentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) throw new IllegalArgumentException("Invalid cursor");
+            return new ContentCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = dateCreated + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getDateCreated() { return dateCreated; }
+    public Integer getId() { return id; }
+}
@@ -0,0 +1,21 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.iamvusumzi.content_manager.model.Content;
+
+import java.util.List;
+
+/**
+ * One keyset page of content. {@code nextCursor} is null on the last page.
+ */
+public class ContentPage {
+    private final List<Content> contents;
+    private final String nextCursor;
+
+    public ContentPage(List<Content> contents, String nextCursor) {
+        this.contents = contents;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Content> getContents() { return contents; }
+    public String getNextCursor() { return nextCursor; }
+}
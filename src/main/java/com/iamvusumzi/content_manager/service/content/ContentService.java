@@ -1,14 +1,26 @@
 package com.iamvusumzi.content_manager.service.content;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentStamp;
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ContentService {
 
-    Content createContent(String username, ContentRequest request);
-    List<Content> getMyContents(String username);
+    Content createContent(AuthenticatedUser user, ContentRequest request);
+    List<Content> getMyContents(AuthenticatedUser user);
     List<Content> getAllContents();
-    Content getContentById(Integer contentId, String username);
-    Content updateContent(String username, Integer contentId, ContentRequest request);
-    void deleteContent(String username, Integer contentId);
+    ContentPage getMyContents(AuthenticatedUser user, String cursor, int size);
+    ContentPage getAllContents(String cursor, int size);
+    Content getContentById(Integer contentId, AuthenticatedUser user);
+    Optional<ContentStamp> findPublishedStamp(Integer contentId);
+    long exportPublished(Consumer<Content> consumer);
+    // expectedVersion comes from an If-Match header; null updates unconditionally
+    Content updateContent(AuthenticatedUser user, Integer contentId, ContentRequest request, Long expectedVersion);
+    void deleteContent(AuthenticatedUser user, Integer contentId);
+    // Per-item results for rejected items; a write that fails in the database rolls back the whole batch
+    List<ContentBatchResult> applyBatch(AuthenticatedUser user, List<ContentBatchOperation> operations);
 }
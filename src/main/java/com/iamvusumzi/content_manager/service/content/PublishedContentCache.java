@@ -0,0 +1,208 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.iamvusumzi.content_manager.config.CacheConfig;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for PUBLISHED content only. Drafts are never cached because
+ * they need a per-request author check; callers evict on every write that can
+ * change what the public sees. Such writes also clear the anonymous response cache
+ * in front of the API. Concurrent misses for the same id share one database load, and a
+ * load of an item, the feed or a feed page that overlaps an eviction returns what it read
+ * without caching it.
+ * <p>
+ * With read replicas, a read right after the commit may still see the old row on a lagging
+ * replica and put it back. Evictions are therefore repeated once the replica lag window
+ * ({@code app.datasource.read-your-writes-ms}) has passed.
+ * <p>
+ * Writes through other instances arrive as outbox changes and are evicted the same way, up
+ * to one outbox poll after they commit. A content that is published and unpublished again
+ * within one delivery arrives as a single change that never touched the feed, so a feed
+ * cached in between is only dropped when it expires.
+ */
+@Component
+public class PublishedContentCache implements ContentChangeConsumer {
+
+    private static final String FULL_FEED_KEY = "all";
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache contentCache;
+    private final Cache feedCache;
+    private final Cache anonymousResponses;
+    private final Counter contentInvalidations;
+    private final Counter feedInvalidations;
+    private final Counter responseInvalidations;
+    private final SingleFlight<Integer, Content> contentLoads;
+    private final Consumer<Runnable> afterReplicaLag;
+    // Bumped by every eviction, so a load that started before it does not cache what it read.
+    // Ids share counters by stripe; a collision only costs a skipped put.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    // The feed and its pages are invalidated as a whole, so they share one counter
+    private final AtomicLong feedGeneration = new AtomicLong();
+    // Read by AnonymousResponseCacheFilter, which is cleared here but fills itself
+    private final AtomicLong responseGeneration = new AtomicLong();
+
+    // The scheduler only exists when replicas are configured (see DataSourceConfig)
+    @Autowired
+    public PublishedContentCache(CacheManager cacheManager, MeterRegistry meterRegistry,
+                                 @Value("${app.cache.content.load-max-wait-ms:2000}") long loadMaxWaitMs,
+                                 @Nullable @Qualifier("replicaEvictionScheduler") TaskScheduler replicaEvictionScheduler,
+                                 @Value("${app.datasource.read-your-writes-ms:3000}") long replicaLagMs) {
+        this(cacheManager, meterRegistry, loadMaxWaitMs, replicaEvictionScheduler == null || replicaLagMs <= 0 ? null
+                : task -> replicaEvictionScheduler.schedule(task, Instant.now().plusMillis(replicaLagMs)));
+    }
+
+    PublishedContentCache(CacheManager cacheManager, MeterRegistry meterRegistry, long loadMaxWaitMs,
+                          Consumer<Runnable> afterReplicaLag) {
+        this.contentCache = cacheManager.getCache(CacheConfig.PUBLISHED_CONTENT);
+        this.feedCache = cacheManager.getCache(CacheConfig.PUBLISHED_FEED);
+        this.anonymousResponses = cacheManager.getCache(CacheConfig.ANONYMOUS_RESPONSES);
+        this.contentInvalidations = Counter.builder("content.cache.invalidations")
+                .description("Explicit evictions caused by content writes")
+                .tag("cache", CacheConfig.PUBLISHED_CONTENT)
+                .register(meterRegistry);
+        this.feedInvalidations = Counter.builder("content.cache.invalidations")
+                .description("Explicit evictions caused by content writes")
+                .tag("cache", CacheConfig.PUBLISHED_FEED)
+                .register(meterRegistry);
+        this.responseInvalidations = Counter.builder("content.cache.invalidations")
+                .description("Explicit evictions caused by content writes")
+                .tag("cache", CacheConfig.ANONYMOUS_RESPONSES)
+                .register(meterRegistry);
+        this.contentLoads = new SingleFlight<>("content", Duration.ofMillis(loadMaxWaitMs), meterRegistry);
+        this.afterReplicaLag = afterReplicaLag;
+    }
+
+    public Content getContent(Integer contentId, Supplier<Content> loader) {
+        Content cached = contentCache.get(contentId, Content.class);
+        if (cached != null) return cached;
+
+        // Cached before the load is released, so a caller arriving after it finds the entry
+        return contentLoads.load(contentId, () -> {
+            long generation = generation(contentId);
+            Content content = loader.get();
+            if (content.getStatus() == Status.PUBLISHED && generation(contentId) == generation) {
+                contentCache.put(contentId, content);
+                // An eviction between the check and the put may have missed the entry; drop it ourselves
+                if (generation(contentId) != generation) contentCache.evict(contentId);
+            }
+            return content;
+        });
+    }
+
+    public Content peekContent(Integer contentId) {
+        return contentCache.get(contentId, Content.class);
+    }
+
+    // Moves whenever the anonymous response cache is cleared
+    public long responseGeneration() {
+        return responseGeneration.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Content> getFeed(Supplier<List<Content>> loader) {
+        List<Content> cached = feedCache.get(FULL_FEED_KEY, List.class);
+        if (cached != null) return cached;
+
+        long generation = feedGeneration.get();
+        List<Content> feed = List.copyOf(loader.get());
+        putFeed(FULL_FEED_KEY, feed, generation);
+        return feed;
+    }
+
+    public ContentPage getFeedPage(String cursor, int size, Supplier<ContentPage> loader) {
+        String key = size + ":" + (cursor == null ? "" : cursor);
+        ContentPage cached = feedCache.get(key, ContentPage.class);
+        if (cached != null) return cached;
+
+        long generation = feedGeneration.get();
+        ContentPage page = loader.get();
+        putFeed(key, page, generation);
+        return page;
+    }
+
+    // The same check as for items: skip the put if the feed was invalidated since the load began
+    private void putFeed(String key, Object value, long generation) {
+        if (feedGeneration.get() != generation) return;
+        feedCache.put(key, value);
+        if (feedGeneration.get() != generation) feedCache.evict(key);
+    }
+
+    /**
+     * Evicts what a write to {@code contentId} can affect. The feed is only dropped
+     * when the content was or now is PUBLISHED, since drafts never appear in it.
+     * Inside a transaction the eviction waits for the commit, so a concurrent read
+     * cannot put the pre-commit row back into the cache.
+     */
+    public void evict(Integer contentId, Status before, Status after) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doEvict(contentId, before, after);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                doEvict(contentId, before, after);
+            }
+        });
+    }
+
+    // This instance's own writes come back here too; evicting them a second time is harmless
+    @Override
+    public void onContentChanged(ContentChangedEvent event) {
+        evict(event.getContentId(), event.getPreviousStatus(), event.getStatus());
+    }
+
+    private void doEvict(Integer contentId, Status before, Status after) {
+        evictNow(contentId, before, after);
+        if (afterReplicaLag != null) {
+            afterReplicaLag.accept(() -> evictNow(contentId, before, after));
+        }
+    }
+
+    private void evictNow(Integer contentId, Status before, Status after) {
+        if (contentId != null) {
+            generations.incrementAndGet(stripe(contentId));
+            contentLoads.forget(contentId);
+            if (contentCache.evictIfPresent(contentId)) contentInvalidations.increment();
+        }
+        if (before == Status.PUBLISHED || after == Status.PUBLISHED) {
+            feedGeneration.incrementAndGet();
+            feedCache.invalidate();
+            feedInvalidations.increment();
+            // Any cached response may list or show the item: feeds, pages, search and its own detail
+            responseGeneration.incrementAndGet();
+            anonymousResponses.invalidate();
+            responseInvalidations.increment();
+        }
+    }
+
+    private long generation(Integer contentId) {
+        return generations.get(stripe(contentId));
+    }
+
+    private static int stripe(Integer contentId) {
+        return Math.floorMod(contentId.hashCode(), GENERATION_STRIPES);
+    }
+}
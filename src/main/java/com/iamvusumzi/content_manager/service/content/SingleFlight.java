@@ -0,0 +1,118 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.iamvusumzi.content_manager.metrics.RequestTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key. The first caller runs the loader on its own
+ * thread, and callers arriving before it finishes wait for that result instead of loading
+ * again; a failure is rethrown to all of them. The in-flight map is only touched with
+ * {@code putIfAbsent} and {@code remove}, so loads of different keys never wait on each other.
+ * <p>
+ * A waiter gives up after {@code maxWait} and runs the loader itself, so one stuck load
+ * cannot hold up every reader of its key for longer than that.
+ * <p>
+ * The SQL a shared load ran is added to the {@link RequestTimings} of each request that
+ * waited for it, not only the one whose thread ran it.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+    private final Counter leaders;
+    private final Counter coalesced;
+    private final Counter timeouts;
+    private final DistributionSummary waitersPerLoad;
+
+    public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxWaitNanos = maxWait.toNanos();
+        this.leaders = counter(meterRegistry, name, "leader");
+        this.coalesced = counter(meterRegistry, name, "coalesced");
+        this.timeouts = counter(meterRegistry, name, "timeout");
+        // Each load records how many callers shared it; the max is the hottest key of the interval
+        this.waitersPerLoad = DistributionSummary.builder("single-flight.waiters")
+                .description("Callers that shared one load, recorded for loads that were shared")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("single-flight.in-flight", inFlight, Map::size)
+                .description("Keys currently being loaded")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            return await(running, loader);
+        }
+
+        leaders.increment();
+        try {
+            V value = RequestTimings.recordShared(flight.timings, loader);
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+            int waiters = flight.waiters.get();
+            if (waiters > 0) waitersPerLoad.record(waiters);
+        }
+    }
+
+    // Callers arriving after this start a new load instead of joining one that may predate a write
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    private V await(Flight<V> flight, Supplier<V> loader) {
+        flight.waiters.incrementAndGet();
+        coalesced.increment();
+        try {
+            V value = flight.result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            RequestTimings.addShared(flight.timings);
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            RequestTimings.addShared(flight.timings);
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared load", e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String role) {
+        return Counter.builder("single-flight.loads")
+                .description("Loads by whether the caller ran the loader, shared a running load, or gave up waiting")
+                .tag("name", name)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+        // Written by the leader before the result completes, read by waiters after
+        private final RequestTimings timings = RequestTimings.forSharedLoad();
+    }
+}
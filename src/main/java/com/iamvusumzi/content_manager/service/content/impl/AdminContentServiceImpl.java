@@ -1,63 +1,107 @@
 package com.iamvusumzi.content_manager.service.content.impl;
 
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentStamp;
 import com.iamvusumzi.content_manager.model.Status;
-import com.iamvusumzi.content_manager.model.User;
 import com.iamvusumzi.content_manager.repository.ContentRepository;
-import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
 import com.iamvusumzi.content_manager.service.content.ContentService;
-import org.springframework.security.access.AccessDeniedException;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import com.iamvusumzi.content_manager.service.content.outbox.ContentOutbox;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+@Timed("content.service")
 @Service("adminContentService")
 public class AdminContentServiceImpl extends BaseContentService implements ContentService {
 
-    public AdminContentServiceImpl(ContentRepository contentRepository, UserRepository userRepository) {
-        super(contentRepository, userRepository);
+    public AdminContentServiceImpl(ContentRepository contentRepository,
+                                   PublishedContentCache publishedContentCache,
+                                   ContentOutbox contentOutbox) {
+        super(contentRepository, publishedContentCache, contentOutbox);
     }
 
     @Override
-    public Content createContent(String username, ContentRequest request) {
-        return createNewContent(username, request);
+    @Transactional
+    public Content createContent(AuthenticatedUser user, ContentRequest request) {
+        return createNewContent(user, request);
     }
 
     @Override
-    public List<Content> getMyContents(String username) {
-        return findContentByAuthor(username);
+    @Transactional(readOnly = true)
+    public List<Content> getMyContents(AuthenticatedUser user) {
+        return findContentByAuthor(user);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Content> getAllContents() {
-        return contentRepository.findByStatusOrderByDateCreatedDesc(Status.PUBLISHED);
+        return findPublished();
     }
 
     @Override
-    public Content getContentById(Integer contentId, String username) {
-        return getContent(username, contentId);
+    @Transactional(readOnly = true)
+    public ContentPage getMyContents(AuthenticatedUser user, String cursor, int size) {
+        return findContentByAuthorPage(user, cursor, size);
     }
 
     @Override
-    public Content updateContent(String username, Integer contentId, ContentRequest request) {
-        return updateContentCommon(username, contentId, request);
+    @Transactional(readOnly = true)
+    public ContentPage getAllContents(String cursor, int size) {
+        return findPublishedPage(cursor, size);
     }
 
     @Override
-    public void deleteContent(String username, Integer contentId) {
-        Content content = contentRepository.findById(contentId)
-                .orElseThrow(()-> new RuntimeException("Content not found"));
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(()-> new RuntimeException("User not found"));
+    @Transactional(readOnly = true)
+    public Content getContentById(Integer contentId, AuthenticatedUser user) {
+        return getContent(user, contentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ContentStamp> findPublishedStamp(Integer contentId) {
+        return getPublishedStamp(contentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPublished(Consumer<Content> consumer) {
+        return exportPublishedContent(consumer);
+    }
+
+    @Override
+    @Transactional
+    public Content updateContent(AuthenticatedUser user, Integer contentId, ContentRequest request,
+                                 Long expectedVersion) {
+        return updateContentCommon(user, contentId, request, expectedVersion);
+    }
+
+    // Admins may delete their own content or anyone's published content
+    @Override
+    @Transactional
+    public void deleteContent(AuthenticatedUser user, Integer contentId) {
+        Status previousStatus = contentRepository.deleteReturningStatus(contentId, user.getId(), Status.PUBLISHED)
+                .orElseThrow(() -> missingOrForbidden(contentId, "You are not allowed to delete this content"));
+        contentDeleted(contentId, previousStatus);
+    }
 
-        boolean isAuthor = content.getAuthor().getId().equals(currentUser.getId());
-        boolean isPublished = content.getStatus() == Status.PUBLISHED;
+    @Override
+    @Transactional
+    public List<ContentBatchResult> applyBatch(AuthenticatedUser user, List<ContentBatchOperation> operations) {
+        return applyBatchCommon(user, operations);
+    }
 
-        if (isAuthor || isPublished) {
-            contentRepository.delete(content);
-        } else {
-            throw new AccessDeniedException("You are not allowed to delete this content");
-        }
+    @Override
+    protected boolean canDelete(Content content, AuthenticatedUser user) {
+        return isAuthor(content, user) || content.getStatus() == Status.PUBLISHED;
     }
 }
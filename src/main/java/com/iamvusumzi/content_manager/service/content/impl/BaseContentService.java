@@ -1,84 +1,303 @@
 package com.iamvusumzi.content_manager.service.content.impl;
 
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
+import com.iamvusumzi.content_manager.exception.PreconditionFailedException;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentStamp;
 import com.iamvusumzi.content_manager.model.Status;
 import com.iamvusumzi.content_manager.model.User;
 import com.iamvusumzi.content_manager.repository.ContentRepository;
-import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult.Outcome;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import com.iamvusumzi.content_manager.service.content.ContentCursor;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import com.iamvusumzi.content_manager.service.content.outbox.ContentOutbox;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
 
 public abstract class BaseContentService {
     protected final ContentRepository contentRepository;
-    protected final UserRepository userRepository;
+    protected final PublishedContentCache publishedContentCache;
+    protected final ContentOutbox contentOutbox;
 
-    protected BaseContentService(ContentRepository contentRepository, UserRepository userRepository) {
+    protected BaseContentService(ContentRepository contentRepository,
+                                 PublishedContentCache publishedContentCache,
+                                 ContentOutbox contentOutbox) {
         this.contentRepository = contentRepository;
-        this.userRepository = userRepository;
+        this.publishedContentCache = publishedContentCache;
+        this.contentOutbox = contentOutbox;
     }
 
-    protected Content createNewContent(String username, ContentRequest request) {
-        Optional<User> user = userRepository.findByUsername(username);
-        if (user.isEmpty()) throw new RuntimeException("User not found: " + username);
-
-        User author = user.get();
-
+    // Must run inside a transaction, so the content row and its outbox row commit together
+    protected Content createNewContent(AuthenticatedUser user, ContentRequest request) {
         Content content = new Content();
         content.setTitle(request.getTitle());
         content.setDesc(request.getDesc());
         content.setStatus(Status.valueOf(request.getStatus().toUpperCase()));
         content.setDateCreated(LocalDateTime.now());
-        content.setAuthor(author);
+        content.setAuthor(authorOf(user));
+
+        Content saved = contentRepository.save(content);
+        publishedContentCache.evict(null, null, saved.getStatus());
+        contentOutbox.append(ContentChangedEvent.saved(saved));
+        return saved;
+    }
+
+    protected List<Content> findContentByAuthor(AuthenticatedUser user) {
+        return contentRepository.findByAuthorIdOrderByDateCreatedDesc(user.getId());
+    }
 
-        return contentRepository.save(content);
+    protected List<Content> findPublished() {
+        return publishedContentCache.getFeed(
+                () -> contentRepository.findByStatusOrderByDateCreatedDesc(Status.PUBLISHED));
     }
 
-    protected List<Content> findContentByAuthor(String username) {
-        User author = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+    protected ContentPage findPublishedPage(String cursor, int size) {
+        return publishedContentCache.getFeedPage(cursor, size, () -> loadPublishedPage(cursor, size));
+    }
+
+    private ContentPage loadPublishedPage(String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Content> rows;
+        if (cursor == null) {
+            rows = contentRepository.findFirstPageByStatus(Status.PUBLISHED, limit);
+        } else {
+            ContentCursor after = ContentCursor.decode(cursor);
+            rows = contentRepository.findPageByStatusAfter(Status.PUBLISHED, after.getDateCreated(), after.getId(), limit);
+        }
+        return toPage(rows, size);
+    }
 
-        return contentRepository.findByAuthorIdOrderByDateCreatedDesc(author.getId());
+    // Bypasses the feed cache: an export reads every row once and must not hold them all
+    protected long exportPublishedContent(Consumer<Content> consumer) {
+        return contentRepository.forEachByStatus(Status.PUBLISHED, consumer);
     }
 
-    protected Content updateContentCommon(String username, Integer contentId, ContentRequest request) {
+    protected ContentPage findContentByAuthorPage(AuthenticatedUser user, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Content> rows;
+        if (cursor == null) {
+            rows = contentRepository.findFirstPageByAuthorId(user.getId(), limit);
+        } else {
+            ContentCursor after = ContentCursor.decode(cursor);
+            rows = contentRepository.findPageByAuthorIdAfter(user.getId(), after.getDateCreated(), after.getId(), limit);
+        }
+        return toPage(rows, size);
+    }
 
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Content existing = contentRepository.findById(contentId)
+    // One extra row is fetched to learn whether another page exists without a COUNT query
+    private ContentPage toPage(List<Content> rows, int size) {
+        if (rows.size() <= size) return new ContentPage(rows, null);
+
+        List<Content> page = List.copyOf(rows.subList(0, size));
+        return new ContentPage(page, ContentCursor.of(page.get(size - 1)).encode());
+    }
+
+    /**
+     * One conditional UPDATE that only matches the caller's own row and returns the status it
+     * replaced, then one SELECT for the response. Two concurrent edits of different fields both
+     * land, since each statement only sets the columns it was given. With an
+     * {@code expectedVersion} the write is also rejected if anyone changed the row since that
+     * version. Must run inside a transaction.
+     */
+    protected Content updateContentCommon(AuthenticatedUser user, Integer contentId, ContentRequest request,
+                                          Long expectedVersion) {
+        Status status = request.getStatus() == null ? null : Status.valueOf(request.getStatus().toUpperCase());
+        Status previousStatus = contentRepository.updateReturningPreviousStatus(contentId, user.getId(),
+                        expectedVersion, request.getTitle(), request.getDesc(), status, LocalDateTime.now())
+                .orElseThrow(() -> rejectedUpdate(user, contentId, expectedVersion));
+
+        Content saved = contentRepository.findById(contentId)
                 .orElseThrow(() -> new RuntimeException("Content not found"));
-        boolean isAuthor = existing.getAuthor().getId().equals(currentUser.getId());
+        publishedContentCache.evict(contentId, previousStatus, saved.getStatus());
+        contentOutbox.append(ContentChangedEvent.saved(saved, previousStatus));
+        return saved;
+    }
+
+    // Called once a conditional DELETE removed the row, with the status the DELETE returned
+    protected void contentDeleted(Integer contentId, Status previousStatus) {
+        publishedContentCache.evict(contentId, previousStatus, null);
+        contentOutbox.append(ContentChangedEvent.deleted(contentId, previousStatus));
+    }
+
+    // The conditional UPDATE matched nothing: find out which of its conditions failed
+    private RuntimeException rejectedUpdate(AuthenticatedUser user, Integer contentId, Long expectedVersion) {
+        Content current = contentRepository.findById(contentId).orElse(null);
+        if (current == null) return new RuntimeException("Content not found");
+        if (!isAuthor(current, user)) return new AccessDeniedException("You are not authorized to update this content");
+        return new PreconditionFailedException(
+                "Content is at version " + current.getVersion() + ", not " + expectedVersion);
+    }
+
+    // A conditional write matched nothing: only on this failure path is the row looked up
+    protected RuntimeException missingOrForbidden(Integer contentId, String forbiddenMessage) {
+        if (!contentRepository.existsById(contentId)) return new RuntimeException("Content not found");
+        return new AccessDeniedException(forbiddenMessage);
+    }
 
-        if (!isAuthor) throw new AccessDeniedException("You are not authorized to update this content");
+    /**
+     * Applies create, update and delete operations for one user. The author is resolved
+     * once, update and delete targets are loaded in one query, and new rows are inserted
+     * in JDBC batches when the caller's transaction flushes. An operation the user may not
+     * perform is reported in its result instead of failing the rest of the batch.
+     */
+    protected List<ContentBatchResult> applyBatchCommon(AuthenticatedUser user, List<ContentBatchOperation> operations) {
+        User author = authorOf(user);
 
-        if (request.getTitle() != null) {
-            existing.setTitle(request.getTitle());
+        Set<Integer> targetIds = new HashSet<>();
+        for (ContentBatchOperation operation : operations) {
+            if (operation.getId() != null) targetIds.add(operation.getId());
         }
-        if (request.getDesc() != null) {
-            existing.setDesc(request.getDesc());
+        Map<Integer, Content> targets = new HashMap<>();
+        contentRepository.findAllById(targetIds).forEach(content -> targets.put(content.getId(), content));
+
+        List<ContentBatchResult> results = new ArrayList<>(operations.size());
+        List<Content> created = new ArrayList<>();
+        List<Content> removed = new ArrayList<>();
+        // Each target's status as loaded, before this batch changed it
+        Map<Integer, Status> previousStatuses = new HashMap<>();
+        targets.forEach((id, content) -> previousStatuses.put(id, content.getStatus()));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (ContentBatchOperation operation : operations) {
+            String op = operation.getOp() == null ? "" : operation.getOp().toUpperCase();
+            Integer id = operation.getId();
+            ContentRequest request = operation.getContent();
+
+            if ((op.equals("CREATE") || op.equals("UPDATE")) && request == null) {
+                results.add(ContentBatchResult.failed(Outcome.INVALID, id, "Content is required for " + op));
+            } else if (op.equals("CREATE")) {
+                Status status = parseStatus(request.getStatus());
+                if (status == null) {
+                    results.add(ContentBatchResult.failed(Outcome.INVALID, null, "Invalid status: " + request.getStatus()));
+                    continue;
+                }
+                Content content = new Content(request.getTitle(), request.getDesc(), status, author);
+                content.setDateCreated(now);
+                created.add(content);
+                results.add(ContentBatchResult.created(content));
+            } else if (op.equals("UPDATE") || op.equals("DELETE")) {
+                Content existing = id == null ? null : targets.get(id);
+                if (existing == null) {
+                    results.add(ContentBatchResult.failed(Outcome.NOT_FOUND, id, "Content not found"));
+                    continue;
+                }
+                if (op.equals("UPDATE")) {
+                    results.add(applyBatchUpdate(existing, request, user, now));
+                } else if (!canDelete(existing, user)) {
+                    results.add(ContentBatchResult.failed(Outcome.FORBIDDEN, id, "You are not allowed to delete this content"));
+                } else {
+                    targets.remove(id);
+                    removed.add(existing);
+                    results.add(ContentBatchResult.deleted(id));
+                }
+            } else {
+                results.add(ContentBatchResult.failed(Outcome.INVALID, id, "Unknown operation: " + operation.getOp()));
+            }
+        }
+
+        // Updated rows are managed and flushed with the inserts and deletes; flushing here rather
+        // than on commit gives updated rows the version their outbox rows must record
+        contentRepository.saveAll(created);
+        contentRepository.deleteAll(removed);
+        contentRepository.flush();
+
+        if (created.stream().anyMatch(content -> content.getStatus() == Status.PUBLISHED)) {
+            publishedContentCache.evict(null, null, Status.PUBLISHED);
         }
-        if (request.getStatus() != null) {
-            existing.setStatus(Status.valueOf(request.getStatus().toUpperCase()));
+        removed.forEach(content -> publishedContentCache.evict(content.getId(), content.getStatus(), null));
+
+        // Created rows only have ids once saveAll has run
+        List<ContentChangedEvent> changes = new ArrayList<>(results.size());
+        for (ContentBatchResult result : results) {
+            if (result.getOutcome() == Outcome.DELETED) {
+                changes.add(ContentChangedEvent.deleted(result.getContentId(), previousStatuses.get(result.getContentId())));
+            } else if (result.getContent() != null) {
+                changes.add(ContentChangedEvent.saved(result.getContent(), previousStatuses.get(result.getContentId())));
+            }
+        }
+        contentOutbox.appendAll(changes);
+        return results;
+    }
+
+    private ContentBatchResult applyBatchUpdate(Content existing, ContentRequest request, AuthenticatedUser user, LocalDateTime now) {
+        if (!isAuthor(existing, user)) {
+            return ContentBatchResult.failed(Outcome.FORBIDDEN, existing.getId(), "You are not authorized to update this content");
+        }
+        Status status = request.getStatus() == null ? existing.getStatus() : parseStatus(request.getStatus());
+        if (status == null) {
+            return ContentBatchResult.failed(Outcome.INVALID, existing.getId(), "Invalid status: " + request.getStatus());
         }
 
-        existing.setDateUpdated(LocalDateTime.now());
+        Status previousStatus = existing.getStatus();
+        if (request.getTitle() != null) existing.setTitle(request.getTitle());
+        if (request.getDesc() != null) existing.setDesc(request.getDesc());
+        existing.setStatus(status);
+        existing.setDateUpdated(now);
 
-        return contentRepository.save(existing);
+        publishedContentCache.evict(existing.getId(), previousStatus, status);
+        return ContentBatchResult.updated(existing);
     }
 
-    protected Content getContent(String username, Integer contentId) {
-        Content content = contentRepository.findById(contentId)
-                .orElseThrow(()-> new RuntimeException("Content not found"));
+    // Who may delete someone else's content differs between users and admins
+    protected boolean canDelete(Content content, AuthenticatedUser user) {
+        return isAuthor(content, user);
+    }
+
+    // getId() on a lazy author proxy does not load the user
+    protected static boolean isAuthor(Content content, AuthenticatedUser user) {
+        return content.getAuthor().getId().equals(user.getId());
+    }
+
+    /**
+     * A detached stand-in for the author built from the token. Hibernate only needs its id
+     * to write {@code author_id}, and responses only read its username, so a new row
+     * needs no SELECT from {@code users}.
+     */
+    private static User authorOf(AuthenticatedUser user) {
+        User author = new User();
+        author.setId(user.getId());
+        author.setUsername(user.getUsername());
+        author.setRole(user.getRole());
+        return author;
+    }
+
+    private static Status parseStatus(String status) {
+        if (status == null) return null;
+        try {
+            return Status.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    protected Content getContent(AuthenticatedUser user, Integer contentId) {
+        Content content = publishedContentCache.getContent(contentId, () -> contentRepository.findById(contentId)
+                .orElseThrow(()-> new RuntimeException("Content not found")));
         if(content.getStatus().equals(Status.PUBLISHED)) return content;
 
-        User author = userRepository.findByUsername(username)
-                .orElseThrow(()-> new RuntimeException("User not found"));
-        boolean isAuthor = content.getAuthor().getId().equals(author.getId());
+        // Anonymous callers only ever see published content
+        if (user == null) throw new RuntimeException("User not found");
+        boolean isAuthor = isAuthor(content, user);
 
         if(!isAuthor) throw new AccessDeniedException("You are not authorized to view this content");
         return content;
     }
+
+    // Validators for a conditional GET, without reading the description column
+    protected Optional<ContentStamp> getPublishedStamp(Integer contentId) {
+        Content cached = publishedContentCache.peekContent(contentId);
+        if (cached != null) return Optional.of(cached);
+
+        return contentRepository.findStampById(contentId)
+                .filter(stamp -> stamp.getStatus() == Status.PUBLISHED);
+    }
 }
@@ -0,0 +1,53 @@
+package com.iamvusumzi.content_manager.service.content.outbox;
+
+import com.iamvusumzi.content_manager.model.ContentOutboxEntry;
+import com.iamvusumzi.content_manager.repository.ContentOutboxRepository;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Records content changes as outbox rows in the writer's own transaction, so a change is
+ * kept exactly when the write itself commits. Delivery happens later in
+ * {@link ContentOutboxDispatcher}; the request only pays for the INSERT.
+ */
+@Component
+public class ContentOutbox {
+
+    private final ContentOutboxRepository outboxRepository;
+    private final ContentOutboxDispatcher dispatcher;
+
+    public ContentOutbox(ContentOutboxRepository outboxRepository, ContentOutboxDispatcher dispatcher) {
+        this.outboxRepository = outboxRepository;
+        this.dispatcher = dispatcher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(ContentChangedEvent event) {
+        appendAll(List.of(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<ContentChangedEvent> events) {
+        if (events.isEmpty()) return;
+
+        outboxRepository.saveAll(events.stream().map(ContentOutbox::toEntry).toList());
+        // The dispatcher reads committed rows only, so wake it once the rows are visible
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.signal();
+            }
+        });
+    }
+
+    private static ContentOutboxEntry toEntry(ContentChangedEvent event) {
+        return new ContentOutboxEntry(event.getContentId(), event.getVersion(), event.getTitle(), event.getDesc(),
+                event.getStatus(), event.getPreviousStatus());
+    }
+}
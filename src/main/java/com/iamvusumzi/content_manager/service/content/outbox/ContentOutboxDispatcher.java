@@ -0,0 +1,317 @@
+package com.iamvusumzi.content_manager.service.content.outbox;
+
+import com.iamvusumzi.content_manager.model.ContentOutboxEntry;
+import com.iamvusumzi.content_manager.model.ContentOutboxSequencer;
+import com.iamvusumzi.content_manager.repository.ContentOutboxRepository;
+import com.iamvusumzi.content_manager.repository.ContentOutboxSequencerRepository;
+import com.iamvusumzi.content_manager.service.content.ContentChangeConsumer;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers outbox rows to every {@link ContentChangeConsumer} of this instance, off the request thread.
+ * <p>
+ * Consumers hold per-instance state (caches, the in-memory index, stream subscribers), so every
+ * instance must see every change: rows are not claimed or deleted on delivery. Each committed
+ * row first gets a delivery position, {@code seq}, from a counter row whose lock lets one
+ * instance hand out positions at a time. A row is only visible once its write commits and is
+ * then numbered after everything numbered before it, so positions follow commit order, which
+ * the pooled ids do not. Every instance reads {@code seq} past its own in-memory position,
+ * starting from where the counter stood when this bean was created; a new instance loads its
+ * state from the tables, not from earlier changes. Rows are deleted {@code retentionMs} after
+ * they were written, so an instance that stops draining for longer than that misses changes.
+ * <p>
+ * One worker thread drains {@code batchSize} rows at a time. Wake-ups coalesce: while a drain
+ * is queued further signals are dropped, so a burst of writes never waits on delivery and
+ * the worker holds at most one pending drain; the table is the buffer. Only commits on this
+ * instance signal it, so changes written through other instances arrive with the periodic poll.
+ * <p>
+ * A failing consumer stops the drain at that change, so later changes never overtake it,
+ * and the drain retries after an exponential backoff. After {@code maxAttempts} this
+ * instance parks the change, skipping it so it no longer blocks the others.
+ */
+@Component
+public class ContentOutboxDispatcher implements SmartLifecycle {
+
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    // Within one content, versions give write order; a delete is always its content's last change
+    private static final Comparator<ContentOutboxEntry> WRITE_ORDER = Comparator
+            .comparing(ContentOutboxEntry::getContentVersion, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ContentOutboxEntry::getId);
+
+    private final ContentOutboxRepository outboxRepository;
+    private final ContentOutboxSequencerRepository sequencerRepository;
+    private final TransactionTemplate transaction;
+    private final List<ContentChangeConsumer> consumers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final long retryBackoffMs;
+    private final long retentionMs;
+    private final Counter delivered;
+    private final Counter failures;
+    private final Counter parked;
+
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private volatile long pausedUntil;
+    private volatile boolean running;
+    private ScheduledExecutorService worker;
+
+    // Only the worker thread touches these once it has started
+    private long position;
+    private long failingSeq = -1;
+    private int failedAttempts;
+    private long nextPruneAt;
+
+    @Autowired
+    public ContentOutboxDispatcher(ContentOutboxRepository outboxRepository,
+                                   ContentOutboxSequencerRepository sequencerRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectProvider<ContentChangeConsumer> consumers,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.outbox.batch-size:200}") int batchSize,
+                                   @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+                                   @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                                   @Value("${app.outbox.retry-backoff-ms:500}") long retryBackoffMs,
+                                   @Value("${app.outbox.retention-ms:600000}") long retentionMs) {
+        this(outboxRepository, sequencerRepository, transactionManager, consumers.orderedStream().toList(),
+                meterRegistry, batchSize, maxAttempts, pollIntervalMs, retryBackoffMs, retentionMs);
+    }
+
+    ContentOutboxDispatcher(ContentOutboxRepository outboxRepository,
+                            ContentOutboxSequencerRepository sequencerRepository,
+                            PlatformTransactionManager transactionManager,
+                            List<ContentChangeConsumer> consumers,
+                            MeterRegistry meterRegistry,
+                            int batchSize, int maxAttempts, long pollIntervalMs, long retryBackoffMs,
+                            long retentionMs) {
+        this.outboxRepository = outboxRepository;
+        this.sequencerRepository = sequencerRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.consumers = List.copyOf(consumers);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalMs = pollIntervalMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.retentionMs = retentionMs;
+        this.delivered = Counter.builder("content.outbox.delivered")
+                .description("Outbox rows delivered to every consumer of this instance")
+                .register(meterRegistry);
+        this.failures = Counter.builder("content.outbox.failures")
+                .description("Drains stopped by a failing consumer or database error")
+                .register(meterRegistry);
+        this.parked = Counter.builder("content.outbox.parked")
+                .description("Changes given up on after the maximum number of attempts")
+                .register(meterRegistry);
+        // Taken before any consumer loads its startup state, so nothing committed after that load is skipped
+        this.position = transaction.execute(status -> sequencerRepository.findById(ContentOutboxSequencer.ID)
+                .map(ContentOutboxSequencer::getLastSeq)
+                .orElse(0L));
+    }
+
+    // Called after every commit that wrote outbox rows; never blocks the caller
+    public void signal() {
+        if (!running || !drainQueued.compareAndSet(false, true)) return;
+        try {
+            worker.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the rows are picked up by the next start
+            drainQueued.set(false);
+        }
+    }
+
+    void drain() {
+        // Cleared first, so a commit landing during this pass queues one more
+        drainQueued.set(false);
+        if (System.currentTimeMillis() < pausedUntil) return;
+        try {
+            while (running && drainBatch()) {
+                // keep going while full batches come back
+            }
+            prune();
+        } catch (RuntimeException e) {
+            // The database is unavailable; the next poll tries again
+            failures.increment();
+        }
+    }
+
+    /**
+     * Numbers up to one batch of newly committed rows, then delivers up to one batch past
+     * this instance's position. Returns whether another batch may be waiting; false when
+     * the table is drained or a consumer failed.
+     */
+    boolean drainBatch() {
+        int sequenced = sequence();
+        int read = deliver();
+        return read >= 0 && (read == batchSize || sequenced == batchSize);
+    }
+
+    /**
+     * Gives committed rows their delivery positions under the counter row's lock. Pooled ids
+     * do not follow write order across instances, so a content's other waiting rows are
+     * numbered along with it, ordered by version. Returns how many rows the batch picked up.
+     */
+    private int sequence() {
+        return transaction.execute(status -> {
+            // A database created without the migration starts without the row; a racing insert fails and the next poll retries
+            ContentOutboxSequencer sequencer = sequencerRepository.lock(ContentOutboxSequencer.ID) == 0
+                    ? sequencerRepository.save(new ContentOutboxSequencer(ContentOutboxSequencer.ID))
+                    : sequencerRepository.findById(ContentOutboxSequencer.ID).orElseThrow();
+            List<ContentOutboxEntry> batch = outboxRepository.findUnsequenced(Limit.of(batchSize));
+            if (batch.isEmpty()) return 0;
+
+            Set<Integer> contentIds = new HashSet<>();
+            batch.forEach(entry -> contentIds.add(entry.getContentId()));
+            long seq = sequencer.getLastSeq();
+            for (ContentOutboxEntry entry : inWriteOrder(outboxRepository.findUnsequencedByContentIdIn(contentIds))) {
+                entry.setSeq(++seq);
+            }
+            sequencer.setLastSeq(seq);
+            return batch.size();
+        });
+    }
+
+    // Returns the rows read, or -1 when a consumer failed and the drain should stop
+    private int deliver() {
+        return transaction.execute(status -> {
+            List<ContentOutboxEntry> pending = outboxRepository.findSequencedAfter(position, Limit.of(batchSize));
+            List<List<ContentOutboxEntry>> changes = new ArrayList<>(byContent(pending));
+
+            for (int i = 0; i < changes.size(); i++) {
+                List<ContentOutboxEntry> change = changes.get(i);
+                try {
+                    deliver(change);
+                    delivered.increment(change.size());
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    if (!giveUp(change)) {
+                        // The retry reads every row of the undelivered changes again, in the same groups
+                        position = changes.subList(i, changes.size()).stream()
+                                .flatMap(List::stream)
+                                .mapToLong(ContentOutboxEntry::getSeq)
+                                .min().orElse(position + 1) - 1;
+                        return -1;
+                    }
+                }
+            }
+            if (!pending.isEmpty()) position = pending.get(pending.size() - 1).getSeq();
+            return pending.size();
+        });
+    }
+
+    // Attempts are counted per change, identified by its newest row, and only on this instance
+    private boolean giveUp(List<ContentOutboxEntry> change) {
+        long seq = change.get(change.size() - 1).getSeq();
+        failedAttempts = seq == failingSeq ? failedAttempts + 1 : 1;
+        failingSeq = seq;
+        if (failedAttempts >= maxAttempts) {
+            parked.increment();
+            failingSeq = -1;
+            return true;
+        }
+        pausedUntil = System.currentTimeMillis() + Math.min(MAX_BACKOFF_MS, retryBackoffMs << Math.min(failedAttempts - 1, 16));
+        return false;
+    }
+
+    // The change from before its oldest row to its newest, so a status that came and went is not lost
+    private void deliver(List<ContentOutboxEntry> change) {
+        ContentChangedEvent event = ContentChangedEvent.of(change.get(change.size() - 1), change.get(0).getPreviousStatus());
+        for (ContentChangeConsumer consumer : consumers) {
+            consumer.onContentChanged(event);
+        }
+    }
+
+    // Any instance may prune; it runs a few times per retention period
+    private void prune() {
+        long now = System.currentTimeMillis();
+        if (now < nextPruneAt) return;
+        nextPruneAt = now + Math.max(pollIntervalMs, retentionMs / 10);
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+        transaction.executeWithoutResult(status -> outboxRepository.deleteSequencedBefore(before));
+    }
+
+    /**
+     * Each row holds the whole content, so only the newest change per content needs
+     * delivering. Groups are ordered by their newest row, the order they would have
+     * been applied in one by one.
+     */
+    private static Collection<List<ContentOutboxEntry>> byContent(List<ContentOutboxEntry> pending) {
+        Map<Integer, List<ContentOutboxEntry>> groups = new LinkedHashMap<>();
+        for (ContentOutboxEntry entry : pending) {
+            List<ContentOutboxEntry> group = groups.remove(entry.getContentId());
+            if (group == null) group = new ArrayList<>();
+            group.add(entry);
+            groups.put(entry.getContentId(), group);
+        }
+        return groups.values();
+    }
+
+    // Contents in the order of their first row, each content's rows in write order
+    private static List<ContentOutboxEntry> inWriteOrder(List<ContentOutboxEntry> rows) {
+        Map<Integer, List<ContentOutboxEntry>> groups = new LinkedHashMap<>();
+        rows.stream()
+                .sorted(Comparator.comparing(ContentOutboxEntry::getId))
+                .forEach(entry -> groups.computeIfAbsent(entry.getContentId(), id -> new ArrayList<>()).add(entry));
+        List<ContentOutboxEntry> ordered = new ArrayList<>(rows.size());
+        for (List<ContentOutboxEntry> group : groups.values()) {
+            group.sort(WRITE_ORDER);
+            ordered.addAll(group);
+        }
+        return ordered;
+    }
+
+    @Override
+    public void start() {
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "content-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        // The first poll runs straight away and delivers whatever was committed since this bean was created
+        worker.scheduleWithFixedDelay(this::signal, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        // Cancels the poll but lets an already queued drain finish
+        worker.shutdown();
+        try {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server, so the last requests' changes get delivered
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
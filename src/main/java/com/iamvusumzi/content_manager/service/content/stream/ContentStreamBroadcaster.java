@@ -0,0 +1,288 @@
+package com.iamvusumzi.content_manager.service.content.stream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.service.content.ContentChangeConsumer;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed content changes out to Server-Sent Events subscribers.
+ * <p>
+ * Changes arrive from the outbox dispatcher. Each is rendered to JSON once, kept in a
+ * replay ring and offered to every subscriber's bounded queue. A small shared pool writes
+ * the queues to the connections, so an idle subscriber holds no thread and the dispatcher
+ * never waits on a client. A subscriber whose queue fills up is disconnected; the browser
+ * reconnects with {@code Last-Event-ID} and catches up from the ring.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}, the epoch being when this instance started.
+ * A {@code Last-Event-ID} from another epoch, or older than the ring, cannot be resumed:
+ * the subscriber gets a {@code reset} event and should reload the feed.
+ */
+@Component
+public class ContentStreamBroadcaster implements ContentChangeConsumer, SmartLifecycle {
+
+    static final String READY = "ready";
+    static final String RESET = "reset";
+    static final String PUBLISHED = "published";
+    static final String REMOVED = "removed";
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(null, null, "keepalive");
+    private static final long BUSY_RETRY_MS = 5_000;
+
+    private final ObjectWriter payloadWriter;
+    private final int bufferSize;
+    private final int replaySize;
+    private final int maxSubscribers;
+    private final int senderThreads;
+    private final long heartbeatMs;
+    private final long timeoutMs;
+    private final Counter dropped;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Guarded by itself, together with sequence and evictedUpTo
+    private final Deque<StreamEvent> replay = new ArrayDeque<>();
+    private long sequence;
+    private long evictedUpTo;
+
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeats;
+    private volatile boolean running;
+
+    public ContentStreamBroadcaster(ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.stream.buffer-size:64}") int bufferSize,
+                                    @Value("${app.stream.replay-size:1000}") int replaySize,
+                                    @Value("${app.stream.max-subscribers:20000}") int maxSubscribers,
+                                    @Value("${app.stream.sender-threads:4}") int senderThreads,
+                                    @Value("${app.stream.heartbeat-ms:15000}") long heartbeatMs,
+                                    @Value("${app.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.payloadWriter = objectMapper.writerFor(Payload.class);
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.maxSubscribers = maxSubscribers;
+        this.senderThreads = senderThreads;
+        this.heartbeatMs = heartbeatMs;
+        this.timeoutMs = timeoutMs;
+        Gauge.builder("content.stream.subscribers", subscribers, Set::size)
+                .description("Open content stream connections")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("content.stream.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMs), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        if (!running || subscribers.size() >= maxSubscribers) {
+            // A 503 would make EventSource give up; a retry hint makes it come back later
+            try {
+                emitter.send(SseEmitter.event().reconnectTime(BUSY_RETRY_MS).comment("busy"));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Under the lock no change can slip in between the catch-up and going live
+        synchronized (replay) {
+            if (lastEventId == null) {
+                // Gives a new client an id to resume from even if nothing changes before it reconnects
+                subscriber.offer(new StreamEvent(currentId(), READY, "{}"));
+            } else {
+                List<StreamEvent> missed = missedSince(lastEventId);
+                if (missed == null || missed.size() > bufferSize) {
+                    subscriber.offer(new StreamEvent(currentId(), RESET, "{}"));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    // Only public changes are streamed: a draft's id must not leak, and a draft edit means nothing to readers
+    @Override
+    public void onContentChanged(ContentChangedEvent event) {
+        boolean published = event.getStatus() == Status.PUBLISHED;
+        if (!published && !event.wasPublished()) return;
+
+        String data = render(published
+                ? new Payload(event.getContentId(), event.getTitle(), event.getDesc())
+                : new Payload(event.getContentId(), null, null));
+
+        synchronized (replay) {
+            StreamEvent streamEvent = new StreamEvent(epoch + "-" + (++sequence), published ? PUBLISHED : REMOVED, data);
+            replay.addLast(streamEvent);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+                evictedUpTo++;
+            }
+            // Offers never block, so the outbox dispatcher is not held up by any client
+            subscribers.forEach(subscriber -> subscriber.offer(streamEvent));
+        }
+    }
+
+    // Null when the id cannot be resumed from the ring; the caller holds the replay lock
+    private List<StreamEvent> missedSince(String lastEventId) {
+        String prefix = epoch + "-";
+        if (!lastEventId.startsWith(prefix)) return null;
+
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // The ring holds sequences evictedUpTo + 1 .. sequence
+        if (last < evictedUpTo || last > sequence) return null;
+        return replay.stream().skip(last - evictedUpTo).toList();
+    }
+
+    private String currentId() {
+        return epoch + "-" + sequence;
+    }
+
+    private String render(Payload payload) {
+        try {
+            return payloadWriter.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            dropped.increment();
+            subscriber.emitter.complete();
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "content-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "content-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Keeps proxies from closing idle connections and finds dead ones: a failed write removes the subscriber
+        heartbeats.scheduleAtFixedRate(() -> subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT)),
+                heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    // Stops before the web server, whose graceful shutdown would otherwise wait on every open stream
+    @Override
+    public void stop() {
+        running = false;
+        heartbeats.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        senders.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record StreamEvent(String id, String name, String data) {
+        SseEmitter.SseEventBuilder toSse() {
+            if (name == null) return SseEmitter.event().comment(data);
+            return SseEmitter.event().id(id).name(name).data(data);
+        }
+    }
+
+    // Removed events only carry the id
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record Payload(Integer id, String title, String desc) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean flushing = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(StreamEvent event) {
+            if (!queue.offer(event)) {
+                drop(this);
+                return;
+            }
+            if (flushing.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::flush);
+                } catch (RejectedExecutionException e) {
+                    flushing.set(false);
+                }
+            }
+        }
+
+        // At most one flush per subscriber is queued or running, so its events stay in order
+        private void flush() {
+            do {
+                StreamEvent event;
+                while ((event = queue.poll()) != null) {
+                    try {
+                        emitter.send(event.toSse());
+                    } catch (IOException | IllegalStateException e) {
+                        // The client went away; the container completes the emitter
+                        subscribers.remove(this);
+                        return;
+                    }
+                }
+                flushing.set(false);
+            } while (!queue.isEmpty() && flushing.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.iamvusumzi.content_manager.service.search;
+
+import com.iamvusumzi.content_manager.model.Content;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results, in rank order.
+ */
+public class ContentSearchPage {
+    private final List<Content> contents;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+
+    public ContentSearchPage(List<Content> contents, int page, int size, boolean hasNext) {
+        this.contents = contents;
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    public List<Content> getContents() { return contents; }
+    public int getPage() { return page; }
+    public int getSize() { return size; }
+    public boolean hasNext() { return hasNext; }
+}
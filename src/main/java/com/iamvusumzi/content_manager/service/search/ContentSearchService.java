@@ -0,0 +1,9 @@
+package com.iamvusumzi.content_manager.service.search;
+
+public interface ContentSearchService {
+
+    /**
+     * Published content matching {@code query}, best match first. {@code page} is zero-based.
+     */
+    ContentSearchPage search(String query, int page, int size);
+}
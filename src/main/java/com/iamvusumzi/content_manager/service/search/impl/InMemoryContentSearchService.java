@@ -0,0 +1,84 @@
+package com.iamvusumzi.content_manager.service.search.impl;
+
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.service.content.ContentChangeConsumer;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import com.iamvusumzi.content_manager.service.search.ContentSearchPage;
+import com.iamvusumzi.content_manager.service.search.ContentSearchService;
+import com.iamvusumzi.content_manager.service.search.index.ContentIndex;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranks against a {@link ContentIndex} of published content held in this instance's memory,
+ * so a query does not touch the database until the page's rows are loaded. The index
+ * is built from a streaming read of the table at startup. After that it follows
+ * {@link ContentChangedEvent}s delivered by the outbox dispatcher, shortly after each commit.
+ * <p>
+ * Each instance keeps its own index. Every instance is delivered every change, but a
+ * write made through another instance only arrives with this instance's next outbox poll.
+ */
+@Service
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemoryContentSearchService implements ContentSearchService, ContentChangeConsumer,
+        SmartInitializingSingleton {
+
+    private final ContentRepository contentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ContentIndex index = new ContentIndex();
+
+    public InMemoryContentSearchService(ContentRepository contentRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.contentRepository = contentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Runs before the web server starts, so no request ever sees a half-built index
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        index.clear();
+        readOnlyTransaction.executeWithoutResult(status -> contentRepository.forEachByStatus(Status.PUBLISHED,
+                content -> index.put(content.getId(), content.getTitle(), content.getDesc())));
+    }
+
+    // Puts and removes replace the whole document, so a redelivered change is harmless
+    @Override
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getStatus() == Status.PUBLISHED) {
+            index.put(event.getContentId(), event.getTitle(), event.getDesc());
+        } else {
+            index.remove(event.getContentId());
+        }
+    }
+
+    @Override
+    public ContentSearchPage search(String query, int page, int size) {
+        // Top-k has to rank every earlier page too; one extra id tells whether another page exists
+        int[] top = index.search(query, (int) Math.min(Integer.MAX_VALUE, (long) (page + 1) * size + 1));
+        int from = (int) Math.min(top.length, (long) page * size);
+        int to = Math.min(top.length, from + size);
+
+        List<Integer> pageIds = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            pageIds.add(top[i]);
+        }
+        boolean hasNext = top.length > to;
+        return new ContentSearchPage(RankedContentLoader.load(contentRepository, pageIds), page, size, hasNext);
+    }
+
+    int indexedDocuments() {
+        return index.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.iamvusumzi.content_manager.service.search.impl;
+
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.service.search.ContentSearchPage;
+import com.iamvusumzi.content_manager.service.search.ContentSearchService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Ranks with Postgres full-text search: {@code websearch_to_tsquery} understands quotes,
+ * {@code OR} and {@code -term}, and {@code ts_rank_cd} orders matches over the GIN-indexed
+ * {@code search_vector}. Ranking returns ids only; the page's rows and authors are then
+ * loaded in one query and put back in rank order.
+ */
+@Service
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresContentSearchService implements ContentSearchService {
+
+    private final ContentRepository contentRepository;
+
+    public PostgresContentSearchService(ContentRepository contentRepository) {
+        this.contentRepository = contentRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ContentSearchPage search(String query, int page, int size) {
+        // One extra id tells whether another page exists without a COUNT over the index
+        List<Integer> ids = contentRepository.searchPublishedIds(query, size + 1, (long) page * size);
+        boolean hasNext = ids.size() > size;
+        List<Integer> pageIds = hasNext ? ids.subList(0, size) : ids;
+        return new ContentSearchPage(RankedContentLoader.load(contentRepository, pageIds), page, size, hasNext);
+    }
+}
@@ -0,0 +1,33 @@
+package com.iamvusumzi.content_manager.service.search.impl;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a page of ranked ids, with their authors, in one query and returns them in rank
+ * order. Rows that have gone away or are no longer published since ranking are skipped.
+ */
+final class RankedContentLoader {
+
+    private RankedContentLoader() {
+    }
+
+    static List<Content> load(ContentRepository contentRepository, List<Integer> rankedIds) {
+        if (rankedIds.isEmpty()) return List.of();
+
+        Map<Integer, Content> byId = contentRepository.findByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(Content::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .filter(content -> content.getStatus() == Status.PUBLISHED)
+                .toList();
+    }
+}
@@ -0,0 +1,400 @@
+package com.iamvusumzi.content_manager.service.search.index;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over content title and description.
+ * <p>
+ * Each term maps to a {@link PostingList} of content ids held in primitive arrays. A title
+ * occurrence counts three times as much as a description occurrence, and scoring is
+ * idf x (1 + ln tf). Lists are walked from the highest id down, so ties go to the newest
+ * content. Within a clause, terms are intersected starting from the shortest list.
+ * <p>
+ * A single-clause query streams matches straight into a bounded top-k heap. A candidate
+ * whose best possible score cannot beat the current k-th hit is skipped before the other
+ * lists are searched. {@code OR} clauses are collected separately, then merged by summing
+ * scores. Readers share a read lock and writers take the write lock.
+ */
+public final class ContentIndex {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int MIN_PREFIX_LENGTH = 2;
+    // A one-letter-longer prefix is always an option; this keeps "co*" from merging half the dictionary
+    static final int MAX_PREFIX_EXPANSIONS = 512;
+
+    private static final float[] TF_SCORE = new float[256];
+
+    static {
+        for (int w = 1; w < TF_SCORE.length; w++) {
+            TF_SCORE[w] = (float) (1 + Math.log(w));
+        }
+    }
+
+    private final TreeMap<String, PostingList> dictionary = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Forward index: the lists each document is in, so removal needs no re-tokenizing.
+    // A map rather than an array indexed by id, so memory follows the documents, not the highest id
+    private final Map<Integer, PostingList[]> documentTerms = new HashMap<>();
+
+    /** Adds or replaces a document. */
+    public void put(int id, String title, String desc) {
+        if (id < 0) throw new IllegalArgumentException("Content id must not be negative");
+        Map<String, Integer> weights = new HashMap<>();
+        Tokenizer.tokenize(title, term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+        Tokenizer.tokenize(desc, term -> weights.merge(term, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            // Terms the new text still has are revived in place, not re-inserted
+            removeLocked(id);
+            PostingList[] lists = new PostingList[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                PostingList list = dictionary.computeIfAbsent(entry.getKey(), PostingList::new);
+                list.add(id, entry.getValue());
+                lists[i++] = list;
+            }
+            documentTerms.put(id, lists);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            dictionary.clear();
+            documentTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best {@code limit} matches, best first. Ties go to the higher (newer) id.
+     * See {@link ContentQuery} for the syntax.
+     */
+    public int[] search(String query, int limit) {
+        if (query == null || limit <= 0) return new int[0];
+        ContentQuery parsed = ContentQuery.parse(query);
+        if (parsed.clauses.isEmpty()) return new int[0];
+
+        lock.readLock().lock();
+        try {
+            if (documentTerms.isEmpty()) return new int[0];
+            TopHits top = new TopHits(Math.min(limit, documentTerms.size()));
+            if (parsed.clauses.size() == 1) {
+                matchAll(parsed.clauses.get(0), top);
+            } else {
+                Hits union = new Hits();
+                matchAll(parsed.clauses.get(0), union);
+                for (int c = 1; c < parsed.clauses.size(); c++) {
+                    Hits hits = new Hits();
+                    matchAll(parsed.clauses.get(c), hits);
+                    // The last merge goes straight into the top k
+                    Collector into = c == parsed.clauses.size() - 1 ? top : new Hits();
+                    union.mergeInto(hits, into);
+                    if (into instanceof Hits merged) union = merged;
+                }
+            }
+            return top.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        PostingList[] lists = documentTerms.remove(id);
+        if (lists == null) return;
+        for (PostingList list : lists) {
+            list.remove(id);
+            if (list.live() == 0) dictionary.remove(list.term);
+        }
+    }
+
+    private void matchAll(List<ContentQuery.Term> clause, Collector collector) {
+        int n = clause.size();
+        PostingList[] lists = new PostingList[n];
+        for (int t = 0; t < n; t++) {
+            ContentQuery.Term term = clause.get(t);
+            lists[t] = term.prefix ? expand(term.text) : dictionary.get(term.text);
+            if (lists[t] == null || lists[t].live() == 0) return;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(PostingList::live));
+
+        float[] idf = new float[n];
+        int[] cursors = new int[n];
+        int documents = documentTerms.size();
+        float otherTermsBound = 0;
+        for (int t = 0; t < n; t++) {
+            idf[t] = (float) Math.log(1 + documents / (double) lists[t].live());
+            cursors[t] = lists[t].size - 1;
+            if (t > 0) otherTermsBound += idf[t] * TF_SCORE[lists[t].maxWeight];
+        }
+        // Slack so float rounding in the sum below never prunes a hit that would have made the cut
+        otherTermsBound *= 1.0001f;
+
+        PostingList lead = lists[0];
+        for (int block = (lead.size - 1) >>> PostingList.BLOCK_SHIFT; block >= 0; block--) {
+            if (idf[0] * TF_SCORE[lead.blockMax(block)] + otherTermsBound <= collector.threshold()) continue;
+
+            int first = block << PostingList.BLOCK_SHIFT;
+            candidates:
+            for (int i = Math.min(lead.size, first + PostingList.BLOCK_SIZE) - 1; i >= first; i--) {
+                int weight = lead.weight(i);
+                if (weight == 0) continue;
+                float score = idf[0] * TF_SCORE[weight];
+                if (score + otherTermsBound <= collector.threshold()) continue;
+
+                int doc = lead.docs[i];
+                for (int t = 1; t < n; t++) {
+                    PostingList list = lists[t];
+                    if (cursors[t] < 0) return;
+                    int at = list.seekDown(doc, cursors[t]);
+                    if (at < 0) {
+                        cursors[t] = -at - 2;
+                        continue candidates;
+                    }
+                    cursors[t] = at - 1;
+                    int otherWeight = list.weight(at);
+                    if (otherWeight == 0) continue candidates;
+                    score += idf[t] * TF_SCORE[otherWeight];
+                }
+                collector.accept(doc, score);
+            }
+        }
+    }
+
+    /** Merges the lists of every term starting with {@code prefix} into one, summing weights per document. */
+    private PostingList expand(String prefix) {
+        if (prefix.length() < MIN_PREFIX_LENGTH) return null;
+        SortedMap<String, PostingList> range = dictionary.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (range.isEmpty()) return null;
+        if (range.size() == 1) return range.values().iterator().next();
+
+        List<PostingList> lists = new ArrayList<>();
+        int total = 0;
+        int lowest = Integer.MAX_VALUE;
+        int highest = 0;
+        for (PostingList list : range.values()) {
+            if (lists.size() == MAX_PREFIX_EXPANSIONS) break;
+            if (list.live() == 0) continue;
+            lists.add(list);
+            total += list.live();
+            lowest = Math.min(lowest, list.docs[0]);
+            highest = Math.max(highest, list.docs[list.size - 1]);
+        }
+        if (lists.isEmpty()) return null;
+
+        // Either way memory is bounded by the postings merged, never by the highest content id
+        long span = (long) highest - lowest + 1;
+        return span <= 8L * total
+                ? accumulate(prefix, lists, lowest, (int) span)
+                : sortAndSum(prefix, lists, total);
+    }
+
+    /** Sums weights in an array over the ids the lists span: linear, for ids that are close together. */
+    private static PostingList accumulate(String prefix, List<PostingList> lists, int lowest, int span) {
+        long[] present = new long[(span + 63) >>> 6];
+        byte[] summed = new byte[span];
+        int count = 0;
+        for (PostingList list : lists) {
+            for (int i = 0; i < list.size; i++) {
+                int weight = list.weight(i);
+                if (weight == 0) continue;
+                int slot = list.docs[i] - lowest;
+                if (summed[slot] == 0) {
+                    present[slot >>> 6] |= 1L << slot;
+                    count++;
+                }
+                summed[slot] = (byte) Math.min(255, (summed[slot] & 0xFF) + weight);
+            }
+        }
+
+        PostingList merged = new PostingList(prefix + "*", count);
+        for (int word = 0; word < present.length; word++) {
+            long bits = present[word];
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                merged.add(lowest + slot, summed[slot] & 0xFF);
+                bits &= bits - 1;
+            }
+        }
+        return merged;
+    }
+
+    /** Sorts the postings by id and sums runs of the same id, for ids spread too thinly to index an array by. */
+    private static PostingList sortAndSum(String prefix, List<PostingList> lists, int total) {
+        // Id in the high bits, so sorting the packed values sorts by id
+        long[] postings = new long[total];
+        int n = 0;
+        for (PostingList list : lists) {
+            for (int i = 0; i < list.size; i++) {
+                int weight = list.weight(i);
+                if (weight != 0) postings[n++] = (long) list.docs[i] << 8 | weight;
+            }
+        }
+        Arrays.sort(postings, 0, n);
+
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || postings[i] >>> 8 != postings[i - 1] >>> 8) count++;
+        }
+        PostingList merged = new PostingList(prefix + "*", count);
+        for (int i = 0; i < n; ) {
+            int doc = (int) (postings[i] >>> 8);
+            int summed = 0;
+            for (; i < n && (int) (postings[i] >>> 8) == doc; i++) {
+                summed += (int) (postings[i] & 0xFF);
+            }
+            merged.add(doc, Math.min(255, summed));
+        }
+        return merged;
+    }
+
+    private interface Collector {
+        void accept(int doc, float score);
+
+        // Lowest score that could still be collected; anything at or below it is dropped
+        float threshold();
+    }
+
+    /** Every match, in descending id order. */
+    private static final class Hits implements Collector {
+
+        int[] docs = new int[16];
+        float[] scores = new float[16];
+        int size;
+
+        @Override
+        public void accept(int doc, float score) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        @Override
+        public float threshold() {
+            return Float.NEGATIVE_INFINITY;
+        }
+
+        void mergeInto(Hits other, Collector out) {
+            int a = 0;
+            int b = 0;
+            while (a < size && b < other.size) {
+                if (docs[a] > other.docs[b]) {
+                    out.accept(docs[a], scores[a++]);
+                } else if (docs[a] < other.docs[b]) {
+                    out.accept(other.docs[b], other.scores[b++]);
+                } else {
+                    out.accept(docs[a], scores[a++] + other.scores[b++]);
+                }
+            }
+            while (a < size) out.accept(docs[a], scores[a++]);
+            while (b < other.size) out.accept(other.docs[b], other.scores[b++]);
+        }
+    }
+
+    /**
+     * The best {@code k} hits in a min-heap whose root is the weakest of them. Hits arrive
+     * in descending id order, so a later hit with an equal score never displaces one.
+     */
+    private static final class TopHits implements Collector {
+
+        final int[] docs;
+        final float[] scores;
+        int size;
+
+        TopHits(int k) {
+            docs = new int[k];
+            scores = new float[k];
+        }
+
+        @Override
+        public void accept(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown();
+            }
+        }
+
+        @Override
+        public float threshold() {
+            return size < docs.length ? Float.NEGATIVE_INFINITY : scores[0];
+        }
+
+        int[] ids() {
+            int[] ids = new int[size];
+            while (size > 0) {
+                ids[size - 1] = docs[0];
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown();
+            }
+            return ids;
+        }
+
+        private boolean weaker(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && docs[a] < docs[b]);
+        }
+
+        private void siftUp(int at) {
+            while (at > 0) {
+                int parent = (at - 1) >>> 1;
+                if (!weaker(at, parent)) return;
+                swap(at, parent);
+                at = parent;
+            }
+        }
+
+        private void siftDown() {
+            int at = 0;
+            while (true) {
+                int left = 2 * at + 1;
+                if (left >= size) return;
+                int weakest = left + 1 < size && weaker(left + 1, left) ? left + 1 : left;
+                if (!weaker(weakest, at)) return;
+                swap(at, weakest);
+                at = weakest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.iamvusumzi.content_manager.service.search.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed query: clauses joined by {@code OR}, each clause a set of terms that must all
+ * match. Terms are separated by spaces (an explicit {@code AND} is allowed) and a trailing
+ * {@code *} makes a term a prefix, e.g. {@code sprin* boot OR postgres}.
+ */
+final class ContentQuery {
+
+    static final class Term {
+        final String text;
+        final boolean prefix;
+
+        Term(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+    }
+
+    final List<List<Term>> clauses;
+
+    private ContentQuery(List<List<Term>> clauses) {
+        this.clauses = clauses;
+    }
+
+    static ContentQuery parse(String query) {
+        List<List<Term>> clauses = new ArrayList<>();
+        Map<String, Term> clause = new LinkedHashMap<>();
+        for (String raw : query.trim().split("\\s+")) {
+            if (raw.equals("OR")) {
+                if (!clause.isEmpty()) clauses.add(List.copyOf(clause.values()));
+                clause = new LinkedHashMap<>();
+                continue;
+            }
+            if (raw.equals("AND")) continue;
+
+            boolean prefix = raw.endsWith("*");
+            List<String> terms = new ArrayList<>();
+            Tokenizer.tokenize(prefix ? raw.substring(0, raw.length() - 1) : raw, terms::add);
+            for (int i = 0; i < terms.size(); i++) {
+                // "spring-bo*" becomes spring AND bo*: only the last piece keeps the wildcard
+                boolean isPrefix = prefix && i == terms.size() - 1;
+                String key = terms.get(i) + (isPrefix ? "*" : "");
+                clause.putIfAbsent(key, new Term(terms.get(i), isPrefix));
+            }
+        }
+        if (!clause.isEmpty()) clauses.add(List.copyOf(clause.values()));
+        return new ContentQuery(clauses);
+    }
+}
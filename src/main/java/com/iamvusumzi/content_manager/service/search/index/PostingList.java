@@ -0,0 +1,152 @@
+package com.iamvusumzi.content_manager.service.search.index;
+
+import java.util.Arrays;
+
+/**
+ * Content ids containing one term, kept sorted so lists can be intersected with a
+ * galloping search. {@code weights[i]} is the weighted term frequency for {@code docs[i]},
+ * stored unsigned and capped at 255.
+ * <p>
+ * Removing a document sets its weight to 0 instead of shifting the arrays. Readers skip
+ * zero-weight postings, and the list is compacted once more than half of it is dead. Removal
+ * from a list of a million ids is then a binary search rather than a 4 MB copy.
+ * <p>
+ * {@code blockMax} holds an upper bound on the weight in each block of {@value #BLOCK_SIZE}
+ * postings. A query can skip a whole block when even its best posting cannot make the top k.
+ */
+final class PostingList {
+
+    static final int BLOCK_SHIFT = 7;
+    static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int MIN_COMPACT_SIZE = 16;
+
+    final String term;
+    int[] docs;
+    byte[] weights;
+    byte[] blockMax;
+    int size;
+    int dead;
+    // Upper bound for pruning; never lowered on removal, so it may overestimate
+    int maxWeight;
+
+    PostingList(String term) {
+        this(term, 2);
+    }
+
+    PostingList(String term, int capacity) {
+        this.term = term;
+        this.docs = new int[Math.max(capacity, 1)];
+        this.weights = new byte[Math.max(capacity, 1)];
+        this.blockMax = new byte[blocks(this.docs.length)];
+    }
+
+    int live() {
+        return size - dead;
+    }
+
+    void add(int doc, int weight) {
+        int w = Math.max(1, Math.min(weight, 255));
+        maxWeight = Math.max(maxWeight, w);
+        // New content gets the highest id, so appends are the common case
+        if (size == 0 || doc > docs[size - 1]) {
+            ensureCapacity(size + 1);
+            docs[size] = doc;
+            weights[size] = (byte) w;
+            raiseBlockMax(size >>> BLOCK_SHIFT, w);
+            size++;
+            return;
+        }
+        int at = Arrays.binarySearch(docs, 0, size, doc);
+        if (at >= 0) {
+            if (weights[at] == 0) dead--;
+            weights[at] = (byte) w;
+            raiseBlockMax(at >>> BLOCK_SHIFT, w);
+            return;
+        }
+        int insert = -at - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(docs, insert, docs, insert + 1, size - insert);
+        System.arraycopy(weights, insert, weights, insert + 1, size - insert);
+        docs[insert] = doc;
+        weights[insert] = (byte) w;
+        size++;
+        // Each later block gained the last posting of the block before it
+        for (int block = (size - 1) >>> BLOCK_SHIFT; block > insert >>> BLOCK_SHIFT; block--) {
+            raiseBlockMax(block, blockMax[block - 1] & 0xFF);
+        }
+        raiseBlockMax(insert >>> BLOCK_SHIFT, w);
+    }
+
+    void remove(int doc) {
+        int at = Arrays.binarySearch(docs, 0, size, doc);
+        if (at < 0 || weights[at] == 0) return;
+        weights[at] = 0;
+        dead++;
+        if (size >= MIN_COMPACT_SIZE && dead > size / 2) compact();
+    }
+
+    int weight(int index) {
+        return weights[index] & 0xFF;
+    }
+
+    int blockMax(int block) {
+        return blockMax[block] & 0xFF;
+    }
+
+    /**
+     * Position of {@code doc} searching down from {@code from}, or {@code -(insertion point) - 1}.
+     * Gallops before binary searching, so walking a long list in step with a short one
+     * costs O(short * log(long / short)) rather than O(long).
+     */
+    int seekDown(int doc, int from) {
+        int lo = from;
+        int hi = from;
+        int step = 1;
+        while (lo >= 0 && docs[lo] > doc) {
+            hi = lo - 1;
+            lo = from - step;
+            step <<= 1;
+        }
+        return Arrays.binarySearch(docs, Math.max(lo, 0), hi + 1, doc);
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (weights[i] == 0) continue;
+            docs[kept] = docs[i];
+            weights[kept] = weights[i];
+            kept++;
+        }
+        size = kept;
+        dead = 0;
+        if (docs.length > MIN_COMPACT_SIZE && size < docs.length / 4) {
+            docs = Arrays.copyOf(docs, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+            blockMax = new byte[blocks(docs.length)];
+        } else {
+            Arrays.fill(blockMax, (byte) 0);
+        }
+        maxWeight = 0;
+        for (int i = 0; i < size; i++) {
+            raiseBlockMax(i >>> BLOCK_SHIFT, weight(i));
+            maxWeight = Math.max(maxWeight, weight(i));
+        }
+    }
+
+    private void raiseBlockMax(int block, int weight) {
+        if (weight > (blockMax[block] & 0xFF)) blockMax[block] = (byte) weight;
+    }
+
+    private static int blocks(int capacity) {
+        return Math.max(1, (capacity + BLOCK_SIZE - 1) >>> BLOCK_SHIFT);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= docs.length) return;
+        int grown = Math.max(capacity, docs.length + (docs.length >> 1) + 1);
+        docs = Arrays.copyOf(docs, grown);
+        weights = Arrays.copyOf(weights, grown);
+        blockMax = Arrays.copyOf(blockMax, blocks(grown));
+    }
+}
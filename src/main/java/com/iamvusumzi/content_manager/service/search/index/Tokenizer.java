@@ -0,0 +1,39 @@
+package com.iamvusumzi.content_manager.service.search.index;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Lower-cases and splits on anything that is not a letter or digit. Very short, very long
+ * and stop-word tokens are dropped: they match most documents and only make posting lists longer.
+ */
+final class Tokenizer {
+
+    static final int MIN_LENGTH = 2;
+    static final int MAX_LENGTH = 40;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    private Tokenizer() {
+    }
+
+    static void tokenize(String text, Consumer<String> sink) {
+        if (text == null) return;
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (token.length() >= MIN_LENGTH && token.length() <= MAX_LENGTH) {
+                String term = token.toString();
+                if (!STOP_WORDS.contains(term)) sink.accept(term);
+            }
+            token.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Feed queries filter on status / author and page by (date_created, id) newest first.
+-- Key order matches the ORDER BY so both list and keyset queries are a single index range scan.
+CREATE INDEX IF NOT EXISTS idx_content_status_created
+    ON content (status, date_created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_content_author_created
+    ON content (author_id, date_created DESC, id DESC);
@@ -0,0 +1,5 @@
+-- Content ids move from IDENTITY to a pooled sequence (allocationSize = 50 in Content).
+-- On Postgres the SERIAL sequence already exists; the CREATE only matters for databases
+-- whose SERIAL is a native identity column.
+CREATE SEQUENCE IF NOT EXISTS content_id_seq;
+ALTER SEQUENCE content_id_seq INCREMENT BY 50;
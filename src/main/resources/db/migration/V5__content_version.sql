@@ -0,0 +1,2 @@
+-- Optimistic locking: Content.version is bumped by every write and compared on If-Match updates
+ALTER TABLE content ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,15 @@
+-- Transactional outbox: one row per content change, inserted in the same transaction as the
+-- change and deleted once ContentOutboxDispatcher has handed it to every consumer.
+-- title/description/status are a snapshot of the row; a NULL status records a delete.
+CREATE SEQUENCE IF NOT EXISTS content_outbox_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS content_outbox (
+    id BIGINT PRIMARY KEY,
+    content_id INT NOT NULL,
+    title VARCHAR(255),
+    description TEXT,
+    status VARCHAR(50),
+    created_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    parked BOOLEAN NOT NULL DEFAULT FALSE
+    );
@@ -0,0 +1,18 @@
+-- Outbox rows are no longer claimed and deleted by whichever instance delivers them first.
+-- Every instance reads them in seq order from its own position; seq is handed out after commit,
+-- under the lock on the single content_outbox_sequencer row, so it follows commit order.
+-- Rows are deleted once older than app.outbox.retention-ms.
+-- content_version orders the changes to one content; it is NULL for a delete.
+ALTER TABLE content_outbox ADD COLUMN IF NOT EXISTS content_version BIGINT;
+ALTER TABLE content_outbox ADD COLUMN IF NOT EXISTS seq BIGINT;
+ALTER TABLE content_outbox DROP COLUMN IF EXISTS attempts;
+ALTER TABLE content_outbox DROP COLUMN IF EXISTS parked;
+
+CREATE INDEX IF NOT EXISTS idx_content_outbox_seq ON content_outbox (seq);
+
+CREATE TABLE IF NOT EXISTS content_outbox_sequencer (
+    id INT PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+    );
+
+INSERT INTO content_outbox_sequencer (id, last_seq) VALUES (1, 0);
@@ -0,0 +1,3 @@
+-- The status a change replaced (NULL for new content), so consumers can tell an item leaving
+-- the public feed from an edit that never touched it.
+ALTER TABLE content_outbox ADD COLUMN IF NOT EXISTS previous_status VARCHAR(50);
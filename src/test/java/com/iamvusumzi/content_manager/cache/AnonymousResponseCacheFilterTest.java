@@ -0,0 +1,196 @@
+package com.iamvusumzi.content_manager.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnonymousResponseCacheFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("test");
+    private final AnonymousResponseCacheFilter filter = new AnonymousResponseCacheFilter(
+            cache, Duration.ofSeconds(5), 1024 * 1024,
+            List.of("/api/contents/stream"), invalidations::get, new SimpleMeterRegistry(), clock::get);
+
+    // Large enough to be stored gzipped; the ETag and body change with every call
+    private final FilterChain application = (request, response) -> {
+        int call = calls.incrementAndGet();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/contents");
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setContentType("application/json");
+        http.setHeader(HttpHeaders.ETAG, "\"v" + call + "\"");
+        http.setHeader("X-Content-Type-Options", "nosniff");
+        http.getOutputStream().write(body(call).getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void shouldServeRepeatedAnonymousGetsFromMemory() throws Exception {
+        MockHttpServletResponse first = get(request("/api/contents"));
+        MockHttpServletResponse gzipped = get(withGzip(request("/api/contents")));
+        MockHttpServletResponse plain = get(request("/api/contents"));
+
+        assertThat(calls).hasValue(1);
+        assertThat(first.getContentAsString()).isEqualTo(body(1));
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(gzipped.getContentAsByteArray())).isEqualTo(body(1));
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG)).isEqualTo("\"v1\"");
+        assertThat(gzipped.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(gzipped.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plain.getContentAsString()).isEqualTo(body(1));
+    }
+
+    @Test
+    void shouldKeyOnParametersAndOrigin() throws Exception {
+        get(request("/api/contents"));
+        MockHttpServletRequest paged = request("/api/contents");
+        paged.addParameter("size", "10");
+        get(paged);
+        MockHttpServletRequest crossOrigin = request("/api/contents");
+        crossOrigin.addHeader(HttpHeaders.ORIGIN, "http://test-client");
+        get(crossOrigin);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void shouldNeverCacheAuthenticatedOrExcludedRequests() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest authenticated = request("/api/contents");
+            authenticated.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+            get(authenticated);
+            get(request("/api/contents/stream"));
+        }
+
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void shouldAnswerConditionalRequestsFromTheStoredETag() throws Exception {
+        get(request("/api/contents/10"));
+        MockHttpServletRequest conditional = request("/api/contents/10");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+
+        MockHttpServletResponse response = get(conditional);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldServeStaleWhileOneRequestRevalidates() throws Exception {
+        get(request("/api/contents"));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+
+        // While the first stale request is refreshing, a concurrent one gets the stale copy
+        AtomicReference<String> concurrent = new AtomicReference<>();
+        FilterChain refreshing = (request, response) -> {
+            try {
+                concurrent.set(get(request("/api/contents")).getContentAsString());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            application.doFilter(request, response);
+        };
+        MockHttpServletResponse refreshed = new MockHttpServletResponse();
+        filter.doFilter(request("/api/contents"), refreshed, refreshing);
+
+        assertThat(concurrent.get()).isEqualTo(body(1));
+        assertThat(refreshed.getContentAsString()).isEqualTo(body(2));
+        assertThat(get(request("/api/contents")).getContentAsString()).isEqualTo(body(2));
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void shouldNotStoreAResponseThatOverlappedAnInvalidation() throws Exception {
+        // A write commits and clears the cache while the chain is still building the old response
+        FilterChain overlapping = (request, response) -> {
+            application.doFilter(request, response);
+            cache.clear();
+            invalidations.incrementAndGet();
+        };
+        MockHttpServletResponse stale = new MockHttpServletResponse();
+        filter.doFilter(request("/api/contents"), stale, overlapping);
+
+        assertThat(stale.getContentAsString()).isEqualTo(body(1));
+        assertThat(cache.get("/api/contents|")).isNull();
+        assertThat(get(request("/api/contents")).getContentAsString()).isEqualTo(body(2));
+        assertThat(get(request("/api/contents")).getContentAsString()).isEqualTo(body(2));
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void shouldTagHitsWithTheRouteThatStoredThem() throws Exception {
+        get(request("/api/contents"));
+        MockHttpServletRequest hit = request("/api/contents");
+        ServerRequestObservationContext observation = new ServerRequestObservationContext(hit, new MockHttpServletResponse());
+        hit.setAttribute(ServerHttpObservationFilter.CURRENT_OBSERVATION_CONTEXT_ATTRIBUTE, observation);
+        get(hit);
+
+        assertThat(calls).hasValue(1);
+        assertThat(hit.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).isEqualTo("/api/contents");
+        assertThat(observation.getPathPattern()).isEqualTo("/api/contents");
+    }
+
+    @Test
+    void shouldNotStoreErrors() throws Exception {
+        FilterChain notFound = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(404);
+        };
+        filter.doFilter(request("/api/contents/99"), new MockHttpServletResponse(), notFound);
+        filter.doFilter(request("/api/contents/99"), new MockHttpServletResponse(), notFound);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, application);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private static MockHttpServletRequest withGzip(MockHttpServletRequest request) {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        return request;
+    }
+
+    private static String body(int version) {
+        return "[{\"title\":\"" + "x".repeat(2000) + "\",\"version\":" + version + "}]";
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.iamvusumzi.content_manager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordConfigTest {
+
+    @Test
+    void shouldVerifyAndFlagLegacyBcryptHashes() {
+        PasswordEncoder encoder = PasswordConfig.delegatingEncoder(PasswordConfig.BCRYPT, 4, 1000);
+        // Stored before hashes carried an {id} prefix
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void shouldFlagHashesBelowTheConfiguredCostOrFromAnotherAlgorithm() {
+        PasswordEncoder old = PasswordConfig.delegatingEncoder(PasswordConfig.BCRYPT, 4, 1000);
+        PasswordEncoder current = PasswordConfig.delegatingEncoder(PasswordConfig.BCRYPT, 5, 1000);
+        PasswordEncoder pbkdf2 = PasswordConfig.delegatingEncoder(PasswordConfig.PBKDF2, 5, 1000);
+
+        String weak = old.encode("secret");
+        String strong = current.encode("secret");
+        String otherAlgorithm = pbkdf2.encode("secret");
+
+        assertThat(strong).startsWith("{bcrypt}");
+        assertThat(otherAlgorithm).startsWith("{pbkdf2}");
+        assertThat(current.upgradeEncoding(weak)).isTrue();
+        assertThat(current.upgradeEncoding(strong)).isFalse();
+        assertThat(current.matches("secret", otherAlgorithm)).isTrue();
+        assertThat(current.upgradeEncoding(otherAlgorithm)).isTrue();
+    }
+
+    @Test
+    void shouldRejectUnknownAlgorithm() {
+        assertThatThrownBy(() -> PasswordConfig.delegatingEncoder("md5", 4, 1000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("md5");
+    }
+}
@@ -1,13 +1,24 @@
 package com.iamvusumzi.content_manager.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
+import com.iamvusumzi.content_manager.exception.PreconditionFailedException;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentStamp;
+import com.iamvusumzi.content_manager.model.Role;
 import com.iamvusumzi.content_manager.model.Status;
 import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
 import com.iamvusumzi.content_manager.security.JwtUtil;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult.Outcome;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
 import com.iamvusumzi.content_manager.service.content.impl.AdminContentServiceImpl;
 import com.iamvusumzi.content_manager.service.content.impl.UserContentServiceImpl;
+import com.iamvusumzi.content_manager.service.content.stream.ContentStreamBroadcaster;
+import com.iamvusumzi.content_manager.service.search.ContentSearchPage;
+import com.iamvusumzi.content_manager.service.search.ContentSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -15,22 +26,35 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ContentController.class)
 @AutoConfigureMockMvc(addFilters = false)
+// Items keep one id across tests, so fragments are serialized fresh rather than cached
+@Import({ContentJsonCache.class, NoOpCacheManager.class})
 class ContentControllerTest {
 
     @Autowired
@@ -42,12 +66,21 @@ class ContentControllerTest {
     @MockBean(name = "adminContentService")
     private AdminContentServiceImpl adminContentService;
 
+    @MockBean
+    private ContentSearchService contentSearchService;
+
+    @MockBean
+    private ContentStreamBroadcaster contentStreamBroadcaster;
+
     @MockBean
     private JwtUtil jwtUtil;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static final AuthenticatedUser USER = new AuthenticatedUser(1, "vusumzi", Role.USER);
+    private static final AuthenticatedUser ADMIN = new AuthenticatedUser(2, "admin", Role.ADMIN);
+
     private Content content;
 
     @BeforeEach
@@ -65,23 +98,27 @@ class ContentControllerTest {
         content.setDateCreated(LocalDateTime.now());
     }
 
-    private void setAuth(String username, String role) {
+    private void setAuth(AuthenticatedUser user) {
+        setAuth(user, "ROLE_" + user.getRole().name());
+    }
+
+    private void setAuth(Object principal, String role) {
         SecurityContextHolder.getContext().setAuthentication(
-                new UsernamePasswordAuthenticationToken(username, null,
+                new UsernamePasswordAuthenticationToken(principal, null,
                         List.of(new SimpleGrantedAuthority(role)))
         );
     }
 
     @Test
     void shouldCreateContentAsUser() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
+        setAuth(USER);
 
         ContentRequest request = new ContentRequest();
         request.setTitle("User Post");
         request.setDesc("Test content");
         request.setStatus("DRAFT");
 
-        when(userContentService.createContent(anyString(), any(ContentRequest.class)))
+        when(userContentService.createContent(eq(USER), any(ContentRequest.class)))
                 .thenReturn(content);
 
         mockMvc.perform(post("/api/contents")
@@ -94,14 +131,14 @@ class ContentControllerTest {
 
     @Test
     void shouldCreateContentAsAdmin() throws Exception {
-        setAuth("admin", "ROLE_ADMIN");
+        setAuth(ADMIN);
 
         ContentRequest request = new ContentRequest();
         request.setTitle("Admin Post");
         request.setDesc("Admin Description");
         request.setStatus("PUBLISHED");
 
-        when(adminContentService.createContent(anyString(), any(ContentRequest.class)))
+        when(adminContentService.createContent(eq(ADMIN), any(ContentRequest.class)))
                 .thenReturn(content);
 
         mockMvc.perform(post("/api/contents")
@@ -114,7 +151,7 @@ class ContentControllerTest {
 
     @Test
     void shouldGetAllContentsAsUser() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
+        setAuth(USER);
         when(userContentService.getAllContents()).thenReturn(List.of(content));
 
         mockMvc.perform(get("/api/contents"))
@@ -125,7 +162,7 @@ class ContentControllerTest {
 
     @Test
     void shouldGetAllContentsAsAdmin() throws Exception {
-        setAuth("admin", "ROLE_ADMIN");
+        setAuth(ADMIN);
         when(adminContentService.getAllContents()).thenReturn(List.of(content));
 
         mockMvc.perform(get("/api/contents"))
@@ -135,18 +172,50 @@ class ContentControllerTest {
 
     @Test
     void shouldReturnNoContentWhenListEmpty() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
+        setAuth(USER);
         when(userContentService.getAllContents()).thenReturn(List.of());
 
         mockMvc.perform(get("/api/contents"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void shouldGetFeedPageWithNextCursor() throws Exception {
+        setAuth(USER);
+        when(userContentService.getAllContents(null, 1)).thenReturn(new ContentPage(List.of(content), "abc"));
+
+        mockMvc.perform(get("/api/contents").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("Spring Testing"))
+                .andExpect(jsonPath("$.next").value("abc"));
+    }
+
+    @Test
+    void shouldClampFeedPageSizeAndForwardCursor() throws Exception {
+        setAuth(USER);
+        when(userContentService.getAllContents("abc", 100)).thenReturn(new ContentPage(List.of(), null));
+
+        mockMvc.perform(get("/api/contents").param("size", "5000").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void shouldGetMyContentsPage() throws Exception {
+        setAuth(USER);
+        when(userContentService.getMyContents(USER, null, 10)).thenReturn(new ContentPage(List.of(content), null));
+
+        mockMvc.perform(get("/api/contents/my").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].author").value("vusumzi"));
+    }
+
     @Test
     void shouldGetMyContentsAsUser() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
+        setAuth(USER);
 
-        when(userContentService.getMyContents("vusumzi")).thenReturn(List.of(content));
+        when(userContentService.getMyContents(USER)).thenReturn(List.of(content));
 
         mockMvc.perform(get("/api/contents/my"))
                 .andExpect(status().isOk())
@@ -156,18 +225,32 @@ class ContentControllerTest {
 
     @Test
     void shouldReturnNoContentWhenMyListEmpty() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
+        setAuth(USER);
 
-        when(userContentService.getMyContents("vusumzi")).thenReturn(List.of());
+        when(userContentService.getMyContents(USER)).thenReturn(List.of());
 
         mockMvc.perform(get("/api/contents/my"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void shouldRejectAnonymousMyContents() throws Exception {
+        setAuth("anonymousUser", "ROLE_ANONYMOUS");
+
+        mockMvc.perform(get("/api/contents/my"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("Authentication required"));
+        mockMvc.perform(get("/api/contents/my").param("size", "10"))
+                .andExpect(status().isUnauthorized());
+
+        verify(userContentService, never()).getMyContents(any());
+        verify(userContentService, never()).getMyContents(any(), any(), anyInt());
+    }
+
     @Test
     void shouldGetContentByIdAsUser() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
-        when(userContentService.getContentById(eq(10), anyString())).thenReturn(content);
+        setAuth(USER);
+        when(userContentService.getContentById(10, USER)).thenReturn(content);
 
         mockMvc.perform(get("/api/contents/10"))
                 .andExpect(status().isOk())
@@ -176,18 +259,95 @@ class ContentControllerTest {
 
     @Test
     void shouldGetContentByIdAsAdmin() throws Exception {
-        setAuth("admin", "ROLE_ADMIN");
-        when(adminContentService.getContentById(eq(10), anyString())).thenReturn(content);
+        setAuth(ADMIN);
+        when(adminContentService.getContentById(10, ADMIN)).thenReturn(content);
 
         mockMvc.perform(get("/api/contents/10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.title").value("Spring Testing"));
     }
 
+    @Test
+    void shouldSendValidatorsWithContentById() throws Exception {
+        setAuth(USER);
+        when(userContentService.getContentById(10, USER)).thenReturn(content);
+
+        mockMvc.perform(get("/api/contents/10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ContentValidators.etag(content)))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedFromStampWithoutLoadingContent() throws Exception {
+        setAuth(USER);
+        when(userContentService.findPublishedStamp(10)).thenReturn(Optional.<ContentStamp>of(content));
+
+        mockMvc.perform(get("/api/contents/10")
+                        .header(HttpHeaders.IF_NONE_MATCH, ContentValidators.etag(content)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(userContentService, never()).getContentById(anyInt(), any());
+    }
+
+    @Test
+    void shouldReturnFullContentWhenEtagIsStale() throws Exception {
+        setAuth(USER);
+        when(userContentService.findPublishedStamp(10)).thenReturn(Optional.<ContentStamp>of(content));
+        when(userContentService.getContentById(10, USER)).thenReturn(content);
+
+        mockMvc.perform(get("/api/contents/10")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"10-0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Spring Testing"));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedFeed() throws Exception {
+        setAuth(USER);
+        when(userContentService.getAllContents()).thenReturn(List.of(content));
+
+        String etag = mockMvc.perform(get("/api/contents"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/contents").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldChangeFeedEtagWhenItemIsUpdated() throws Exception {
+        setAuth(USER);
+        when(userContentService.getAllContents()).thenReturn(List.of(content));
+
+        String etag = mockMvc.perform(get("/api/contents"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        content.setDateUpdated(content.getDateCreated().plusMinutes(5));
+
+        mockMvc.perform(get("/api/contents").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Spring Testing"));
+    }
+
+    @Test
+    void shouldAnswerServiceUnavailableWhenNoConnectionIsAvailable() throws Exception {
+        setAuth(USER);
+        when(userContentService.getMyContents(USER))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out after 5000ms"));
+
+        mockMvc.perform(get("/api/contents/my"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.error").value("Service temporarily unavailable"));
+    }
+
     @Test
     void shouldDeleteContentAsUser() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
-        Mockito.doNothing().when(userContentService).deleteContent("vusumzi", 10);
+        setAuth(USER);
+        Mockito.doNothing().when(userContentService).deleteContent(USER, 10);
 
         mockMvc.perform(delete("/api/contents/10"))
                 .andExpect(status().isNoContent());
@@ -195,20 +355,185 @@ class ContentControllerTest {
 
     @Test
     void shouldUpdateContentAsUser() throws Exception {
-        setAuth("vusumzi", "ROLE_USER");
+        setAuth(USER);
         ContentRequest req = new ContentRequest();
         req.setTitle("Updated Title");
         req.setDesc(content.getDesc());
         req.setStatus(String.valueOf(content.getStatus()));
 
-        when(userContentService.updateContent(eq("vusumzi"), eq(10), any(ContentRequest.class)))
+        when(userContentService.updateContent(eq(USER), eq(10), any(ContentRequest.class), isNull()))
                 .thenReturn(content);
 
         mockMvc.perform(put("/api/contents/10")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ContentValidators.etag(content)))
                 .andExpect(jsonPath("$.title").value("Spring Testing"));
     }
-}
 
+    @Test
+    void shouldPassIfMatchVersionToUpdate() throws Exception {
+        setAuth(USER);
+        when(userContentService.updateContent(eq(USER), eq(10), any(ContentRequest.class), eq(3L)))
+                .thenReturn(content);
+
+        mockMvc.perform(put("/api/contents/10")
+                        .header(HttpHeaders.IF_MATCH, "W/\"10-2\", \"10-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldReturn412WhenIfMatchIsStaleOrForAnotherContent() throws Exception {
+        setAuth(USER);
+        when(userContentService.updateContent(eq(USER), eq(10), any(ContentRequest.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Content is at version 3, not 2"));
+
+        mockMvc.perform(put("/api/contents/10")
+                        .header(HttpHeaders.IF_MATCH, "\"10-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest())))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Content is at version 3, not 2"));
+
+        mockMvc.perform(put("/api/contents/10")
+                        .header(HttpHeaders.IF_MATCH, "\"11-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void shouldReturn409WhenVersionedWriteLosesRace() throws Exception {
+        setAuth(USER);
+        when(userContentService.updateContent(eq(USER), eq(10), any(ContentRequest.class), isNull()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Content.class, 10));
+
+        mockMvc.perform(put("/api/contents/10")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validRequest())))
+                .andExpect(status().isConflict());
+    }
+
+    private ContentRequest validRequest() {
+        ContentRequest req = new ContentRequest();
+        req.setTitle("Updated Title");
+        req.setDesc(content.getDesc());
+        req.setStatus(String.valueOf(content.getStatus()));
+        return req;
+    }
+
+    @Test
+    void shouldApplyBatchAndReportEachItemInRequestOrder() throws Exception {
+        setAuth(USER);
+        ContentRequest valid = new ContentRequest();
+        valid.setTitle("Spring Testing");
+        valid.setDesc("Sample content");
+        valid.setStatus("PUBLISHED");
+        ContentRequest invalid = new ContentRequest();
+        invalid.setTitle("No");
+
+        ContentBatchOperation create = new ContentBatchOperation();
+        create.setOp("CREATE");
+        create.setContent(valid);
+        ContentBatchOperation badCreate = new ContentBatchOperation();
+        badCreate.setOp("CREATE");
+        badCreate.setContent(invalid);
+        ContentBatchOperation delete = new ContentBatchOperation();
+        delete.setOp("DELETE");
+        delete.setId(99);
+
+        when(userContentService.applyBatch(eq(USER), argThat(ops -> ops.size() == 2)))
+                .thenReturn(List.of(ContentBatchResult.created(content),
+                        ContentBatchResult.failed(Outcome.NOT_FOUND, 99, "Content not found")));
+
+        mockMvc.perform(post("/api/contents/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(create, badCreate, delete))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[0].content.title").value("Spring Testing"))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value(org.hamcrest.Matchers.containsString("desc")))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].status").value(404));
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() throws Exception {
+        setAuth(USER);
+
+        mockMvc.perform(post("/api/contents/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(userContentService, never()).applyBatch(any(), any());
+    }
+
+    @Test
+    void shouldExportPublishedContentAsNdjson() throws Exception {
+        Content second = new Content("Second", "More", Status.PUBLISHED, content.getAuthor());
+        second.setId(11);
+        Mockito.doAnswer(inv -> {
+            Consumer<Content> consumer = inv.getArgument(0);
+            consumer.accept(content);
+            consumer.accept(second);
+            return 2L;
+        }).when(userContentService).exportPublished(any());
+
+        String body = mockMvc.perform(get("/api/contents/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asInt()).isEqualTo(10);
+        assertThat(objectMapper.readTree(lines[1]).get("title").asText()).isEqualTo("Second");
+        assertThat(lines[1]).startsWith("{");
+    }
+
+    @Test
+    void shouldOpenEventStreamResumingFromLastEventId() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(contentStreamBroadcaster.subscribe("abc-41")).thenReturn(emitter);
+
+        mockMvc.perform(get("/api/contents/stream")
+                        .header("Last-Event-ID", "abc-41")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(contentStreamBroadcaster).subscribe("abc-41");
+        emitter.complete();
+    }
+
+    @Test
+    void shouldReturnRankedSearchPage() throws Exception {
+        setAuth("anonymous", "ROLE_ANONYMOUS");
+        when(contentSearchService.search("spring testing", 1, 10))
+                .thenReturn(new ContentSearchPage(List.of(content), 1, 10, true));
+
+        mockMvc.perform(get("/api/contents/search")
+                        .param("q", "  spring testing ")
+                        .param("page", "1")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(10))
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.size").value(10))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void shouldRejectBlankSearchQuery() throws Exception {
+        mockMvc.perform(get("/api/contents/search").param("q", "  "))
+                .andExpect(status().isBadRequest());
+
+        verify(contentSearchService, never()).search(any(), anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,103 @@
+package com.iamvusumzi.content_manager.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iamvusumzi.content_manager.config.CacheConfig;
+import com.iamvusumzi.content_manager.dto.ContentPageResponse;
+import com.iamvusumzi.content_manager.metrics.RequestMetricsFilter;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentJsonCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private ContentJsonCache cache;
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.CONTENT_JSON, Caffeine.newBuilder().maximumSize(10).build());
+        cache = new ContentJsonCache(cacheManager, objectMapper);
+        author = new User();
+        author.setId(1);
+        author.setUsername("vusumzi");
+    }
+
+    @Test
+    void shouldWriteTheSameJsonAsJackson() throws IOException {
+        List<Content> contents = List.of(
+                content(10, Status.PUBLISHED, "Quotes \" and ünïcödé"),
+                content(11, Status.DRAFT, "Draft"));
+
+        assertThat(write(cache.list(contents)))
+                .isEqualTo(objectMapper.writeValueAsString(contents.stream().map(ContentController::mapToResponse).toList()));
+        assertThat(write(cache.list(List.of()))).isEqualTo("[]");
+
+        for (String cursor : new String[] {"abc\"def", null}) {
+            ContentPage page = new ContentPage(contents, cursor);
+            ContentPageResponse expected = new ContentPageResponse(
+                    contents.stream().map(ContentController::mapToResponse).toList(), cursor);
+            assertThat(write(cache.page(page))).isEqualTo(objectMapper.writeValueAsString(expected));
+        }
+    }
+
+    @Test
+    void shouldCountBuildingTheBodyAsSerialization() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new RequestMetricsFilter(registry).doFilter(new MockHttpServletRequest("GET", "/api/contents"),
+                new MockHttpServletResponse(), (request, response) -> cache.list(List.of(content(10, Status.PUBLISHED, "Item"))));
+
+        assertThat(registry.get("http.server.requests.serialization").timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void shouldReusePublishedFragmentsUntilTheItemChanges() {
+        Content published = content(10, Status.PUBLISHED, "Before");
+        byte[] first = cache.fragment(published);
+        assertThat(cache.fragment(published)).isSameAs(first);
+
+        published.setTitle("After");
+        published.setDateUpdated(published.getDateCreated().plusMinutes(1));
+        assertThat(new String(cache.fragment(published), StandardCharsets.UTF_8)).contains("After");
+    }
+
+    @Test
+    void shouldNeverCacheDrafts() {
+        Content draft = content(11, Status.DRAFT, "Draft");
+
+        assertThat(cache.fragment(draft)).isNotSameAs(cache.fragment(draft));
+    }
+
+    private String write(JsonFragments fragments) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fragments.writeTo(out);
+        assertThat(fragments.contentLength()).isEqualTo(out.size());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Content content(int id, Status status, String title) {
+        Content content = new Content(title, "Body", status, author);
+        content.setId(id);
+        content.setDateCreated(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return content;
+    }
+}
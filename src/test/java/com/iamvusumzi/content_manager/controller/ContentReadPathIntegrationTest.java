@@ -0,0 +1,130 @@
+package com.iamvusumzi.content_manager.controller;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.JwtUtil;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the read endpoints against real services with open-in-view off: responses map the
+ * author after the service's transaction has ended, so every query must have loaded it.
+ */
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:readpathdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentReadPathIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String token;
+    private Integer publishedId;
+    private Integer draftId;
+
+    @BeforeEach
+    void setUp() {
+        contentRepository.deleteAll();
+        userRepository.deleteAll();
+        User author = userRepository.save(new User("vusumzi", "hash", Role.USER));
+        token = "Bearer " + jwtUtil.generateToken(author.getId(), author.getUsername(), "USER");
+
+        Content published = new Content("Published", "Body", Status.PUBLISHED, author);
+        published.setDateCreated(LocalDateTime.now().minusMinutes(1));
+        Content draft = new Content("Draft", "Body", Status.DRAFT, author);
+        draft.setDateCreated(LocalDateTime.now());
+        contentRepository.saveAll(List.of(published, draft));
+        publishedId = published.getId();
+        draftId = draft.getId();
+    }
+
+    @Test
+    void shouldMapAuthorsOnEveryReadPathOutsideTheTransaction() throws Exception {
+        mockMvc.perform(get("/api/contents"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].author").value("vusumzi"));
+        mockMvc.perform(get("/api/contents").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].author").value("vusumzi"));
+        mockMvc.perform(get("/api/contents/" + publishedId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.author").value("vusumzi"));
+        mockMvc.perform(get("/api/contents/" + draftId).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.author").value("vusumzi"));
+        mockMvc.perform(get("/api/contents/my").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].author").value("vusumzi"));
+        mockMvc.perform(get("/api/contents/my").param("size", "5").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].author").value("vusumzi"));
+    }
+
+    @Test
+    void shouldMapAuthorsOfBatchUpdatedContent() throws Exception {
+        mockMvc.perform(post("/api/contents/batch")
+                        .header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"op\":\"update\",\"id\":" + draftId + ",\"content\":{\"title\":\"Renamed\",\"desc\":\"Body\",\"status\":\"DRAFT\"}}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].content.title").value("Renamed"))
+                .andExpect(jsonPath("$[0].content.author").value("vusumzi"));
+    }
+
+    @Test
+    void shouldLoadFeedRowsReadOnlyButBatchTargetsWritable() {
+        // A read-write transaction, so only the query hints can make the feed rows read-only
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+
+            List<Content> feed = contentRepository.findByStatusOrderByDateCreatedDesc(Status.PUBLISHED);
+            assertThat(feed).allSatisfy(content -> assertThat(session.isReadOnly(content)).isTrue());
+            session.clear();
+
+            List<Content> targets = contentRepository.findAllById(List.of(publishedId, draftId));
+            assertThat(targets).allSatisfy(content -> assertThat(session.isReadOnly(content)).isFalse());
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.iamvusumzi.content_manager.datasource;
+
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for the primary and its replica; each query reports
+ * the name of the database that answered it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primarydb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false",
+        "app.datasource.replicas.urls=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false",
+        "app.datasource.read-your-writes-ms=60000"
+})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToTheReplicaAndTheRestToThePrimary() {
+        assertThat(databaseIn(true)).isEqualToIgnoringCase("replicadb");
+        assertThat(databaseIn(false)).isEqualToIgnoringCase("primarydb");
+    }
+
+    @Test
+    void shouldReadFromThePrimaryRightAfterTheUsersOwnWrite() {
+        authenticate(5);
+        assertThat(databaseIn(true)).isEqualToIgnoringCase("replicadb");
+
+        databaseIn(false);
+
+        assertThat(databaseIn(true)).isEqualToIgnoringCase("primarydb");
+        authenticate(6);
+        assertThat(databaseIn(true)).isEqualToIgnoringCase("replicadb");
+        SecurityContextHolder.clearContext();
+        assertThat(databaseIn(true)).isEqualToIgnoringCase("replicadb");
+    }
+
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                (String) entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult());
+    }
+
+    private static void authenticate(int userId) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId, Role.USER);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,97 @@
+package com.iamvusumzi.content_manager.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReplicaDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean pinned = new AtomicBoolean();
+
+    private ReplicaDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        dataSource = new ReplicaDataSource(primary, List.of(first, second), 5_000, pinned::get,
+                new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void shouldTakeTurnsBetweenReplicas() throws SQLException {
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void shouldSkipAFailedReplicaUntilItsCooldownIsOver() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("replica down"));
+
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        verify(first, times(1)).getConnection();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        reset(first);
+        when(first.getConnection()).thenReturn(firstConnection);
+
+        assertThat(dataSource.getConnection()).isSameAs(secondConnection);
+        assertThat(dataSource.getConnection()).isSameAs(firstConnection);
+    }
+
+    @Test
+    void shouldFallBackToThePrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("replica down"));
+        when(second.getConnection()).thenThrow(new SQLException("replica down"));
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verify(first, times(1)).getConnection();
+        verify(second, times(1)).getConnection();
+    }
+
+    @Test
+    void shouldPassExplicitCredentialsToWhicheverPoolServesTheRead() throws SQLException {
+        Connection asReporter = mock(Connection.class);
+        when(first.getConnection("reporter", "secret")).thenReturn(asReporter);
+        when(second.getConnection("reporter", "secret")).thenThrow(new SQLException("replica down"));
+        when(primary.getConnection("reporter", "secret")).thenReturn(primaryConnection);
+
+        assertThat(dataSource.getConnection("reporter", "secret")).isSameAs(asReporter);
+        assertThat(dataSource.getConnection("reporter", "secret")).isSameAs(asReporter);
+        pinned.set(true);
+        assertThat(dataSource.getConnection("reporter", "secret")).isSameAs(primaryConnection);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void shouldUseThePrimaryWhilePinned() throws SQLException {
+        pinned.set(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        verifyNoInteractions(first, second);
+    }
+}
@@ -0,0 +1,146 @@
+package com.iamvusumzi.content_manager.metrics;
+
+import com.iamvusumzi.content_manager.service.content.SingleFlight;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RequestMetricsFilter filter = new RequestMetricsFilter(registry);
+
+    @Test
+    void shouldRecordTheRequestBreakdownUnderTheMatchedRoute() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contents/7");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/contents/{id}");
+            RequestTimings.addJwtVerification(TimeUnit.MICROSECONDS.toNanos(40));
+            RequestTimings.addStatement(TimeUnit.MILLISECONDS.toNanos(3));
+            RequestTimings.addStatement(TimeUnit.MILLISECONDS.toNanos(2));
+            RequestTimings.addSerialization(TimeUnit.MICROSECONDS.toNanos(300));
+        });
+
+        Timer db = timer("http.server.requests.db", "/api/contents/{id}");
+        assertThat(db.count()).isEqualTo(1);
+        assertThat(db.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5);
+        assertThat(timer("http.server.requests.jwt", "/api/contents/{id}").totalTime(TimeUnit.MICROSECONDS)).isEqualTo(40);
+        assertThat(timer("http.server.requests.serialization", "/api/contents/{id}").totalTime(TimeUnit.MICROSECONDS))
+                .isEqualTo(300);
+        assertThat(registry.get("db.statements.per.request").tag("uri", "/api/contents/{id}").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecordZeroDatabaseTimeAndSkipStepsThatDidNotHappen() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/nowhere"), new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(timer("http.server.requests.db", "UNKNOWN").totalTime(TimeUnit.NANOSECONDS)).isZero();
+        assertThat(registry.find("http.server.requests.jwt").timer()).isNull();
+        assertThat(registry.find("http.server.requests.serialization").timer()).isNull();
+    }
+
+    @Test
+    void shouldNotCollectTimingsOutsideARequest() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/contents"), new MockHttpServletResponse(), (req, res) -> { });
+
+        // After the request the thread has no timings, e.g. the outbox worker running a query
+        RequestTimings.addStatement(TimeUnit.SECONDS.toNanos(1));
+
+        assertThat(timer("http.server.requests.db", "UNKNOWN").totalTime(TimeUnit.NANOSECONDS)).isZero();
+    }
+
+    @Test
+    void shouldCountWorkHandedToAnotherThread() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/auth/login"), new MockHttpServletResponse(),
+                    (req, res) -> {
+                        try {
+                            pool.submit(RequestTimings.propagate(() -> {
+                                RequestTimings.addStatement(TimeUnit.MILLISECONDS.toNanos(4));
+                                return null;
+                            })).get();
+                        } catch (InterruptedException | ExecutionException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(timer("http.server.requests.db", "UNKNOWN").totalTime(TimeUnit.MILLISECONDS)).isEqualTo(4);
+    }
+
+    @Test
+    void shouldCountASharedLoadForEveryRequestThatWaitedOnIt() throws Exception {
+        SingleFlight<Integer, String> loads = new SingleFlight<>("test", Duration.ofSeconds(5), registry);
+        CountDownLatch joined = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> leader = requests.submit(() -> get(() -> loads.load(7, () -> {
+                await(joined);
+                RequestTimings.addStatement(TimeUnit.MILLISECONDS.toNanos(3));
+                return "content";
+            })));
+            await(() -> registry.get("single-flight.in-flight").gauge().value() == 1);
+            Future<?> waiter = requests.submit(() -> get(() -> loads.load(7, () -> "not shared")));
+            await(() -> registry.get("single-flight.loads").tag("role", "coalesced").counter().count() == 1);
+            joined.countDown();
+            leader.get(5, TimeUnit.SECONDS);
+            waiter.get(5, TimeUnit.SECONDS);
+        } finally {
+            requests.shutdown();
+        }
+
+        Timer db = timer("http.server.requests.db", "UNKNOWN");
+        assertThat(db.count()).isEqualTo(2);
+        assertThat(db.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(6);
+    }
+
+    private void get(Supplier<String> handler) {
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/contents/7"), new MockHttpServletResponse(),
+                    (req, res) -> handler.get());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private Timer timer(String name, String uri) {
+        return registry.get(name).tag("uri", uri).tag("method", "GET").timer();
+    }
+}
@@ -0,0 +1,51 @@
+package com.iamvusumzi.content_manager.metrics;
+
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The listener is registered through application.properties, the same way the running
+ * application gets it.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:statementdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+class StatementTimingListenerTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void shouldCountAndTimeEveryStatementTheRequestRuns() {
+        RequestTimings timings = RequestTimings.start();
+
+        entityManager.persistAndFlush(new User("vusumzi", "hash", Role.USER));
+        entityManager.clear();
+        userRepository.findByUsername("vusumzi");
+        userRepository.findByUsername("nobody");
+
+        assertThat(timings.getStatements()).isGreaterThanOrEqualTo(3);
+        assertThat(timings.getStatementNanos()).isPositive();
+    }
+}
@@ -0,0 +1,29 @@
+package com.iamvusumzi.content_manager.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate prepares, so tests can check the statements repository methods
+ * actually send. Enable with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class CapturedSql implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    static String last() {
+        return STATEMENTS.get(STATEMENTS.size() - 1);
+    }
+}
@@ -0,0 +1,255 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that update and delete check ownership in the statement itself. Writers run
+ * in their own transactions on separate threads, so these tests commit for real.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:conditionaldb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContentRepositoryConditionalWriteTest {
+
+    private static final int WRITES_PER_THREAD = 50;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+    private User author;
+    private User other;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+        author = userRepository.save(new User("author", "secret", Role.USER));
+        other = userRepository.save(new User("other", "secret", Role.ADMIN));
+    }
+
+    @AfterEach
+    void tearDown() {
+        contentRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldOnlyUpdateOwnContentAndLeaveNullFieldsAlone() {
+        Integer id = save("Title", Status.DRAFT, author);
+
+        assertThat(update(id, other, "Hijacked", null, null)).isEmpty();
+        assertThat(update(-1, author, "Missing", null, null)).isEmpty();
+        assertThat(update(id, author, null, "New body", Status.PUBLISHED)).contains(Status.DRAFT);
+        assertThat(update(id, author, "Title", null, null)).contains(Status.PUBLISHED);
+
+        Content saved = contentRepository.findById(id).orElseThrow();
+        assertThat(saved.getTitle()).isEqualTo("Title");
+        assertThat(saved.getDesc()).isEqualTo("New body");
+        assertThat(saved.getStatus()).isEqualTo(Status.PUBLISHED);
+        assertThat(saved.getDateUpdated()).isNotNull();
+    }
+
+    @Test
+    void shouldNotLoseConcurrentUpdatesToDifferentFields() throws Exception {
+        Integer id = save("Title", Status.DRAFT, author);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> titles = pool.submit(() -> {
+                await(start);
+                for (int i = 1; i <= WRITES_PER_THREAD; i++) update(id, author, "title-" + i, null, null);
+            });
+            Future<?> descs = pool.submit(() -> {
+                await(start);
+                for (int i = 1; i <= WRITES_PER_THREAD; i++) update(id, author, null, "desc-" + i, null);
+            });
+            start.countDown();
+            titles.get();
+            descs.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Content saved = contentRepository.findById(id).orElseThrow();
+        assertThat(saved.getTitle()).isEqualTo("title-" + WRITES_PER_THREAD);
+        assertThat(saved.getDesc()).isEqualTo("desc-" + WRITES_PER_THREAD);
+    }
+
+    @Test
+    void shouldApplyOrRejectEveryVersionedReadModifyWrite() throws Exception {
+        // Each writer reads a counter from the title and writes it back incremented, guarded by the version it read
+        Integer id = save("0", Status.DRAFT, author);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(pool.submit(() -> {
+                    await(start);
+                    for (int i = 0; i < WRITES_PER_THREAD / 2; i++) {
+                        Content read = contentRepository.findById(id).orElseThrow();
+                        String next = String.valueOf(Integer.parseInt(read.getTitle()) + 1);
+                        if (update(id, author, read.getVersion(), next, null, null).isPresent()) {
+                            applied.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) writer.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Content saved = contentRepository.findById(id).orElseThrow();
+        assertThat(applied.get() + rejected.get()).isEqualTo(threads * (WRITES_PER_THREAD / 2));
+        assertThat(applied.get()).isPositive();
+        // No increment was lost: every applied write moved the counter and the version exactly once
+        assertThat(saved.getTitle()).isEqualTo(String.valueOf(applied.get()));
+        assertThat(saved.getVersion()).isEqualTo(applied.get());
+    }
+
+    @Test
+    void shouldReturnTheStatusEachConcurrentUpdateReplaced() throws Exception {
+        // Writers flip the status back and forth; every publish and unpublish must be seen exactly once
+        Integer id = save("Title", Status.DRAFT, author);
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger published = new AtomicInteger();
+        AtomicInteger unpublished = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Status target = t % 2 == 0 ? Status.PUBLISHED : Status.DRAFT;
+                writers.add(pool.submit(() -> {
+                    await(start);
+                    for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                        Status previous = update(id, author, null, null, target).orElseThrow();
+                        if (previous != target) {
+                            (target == Status.PUBLISHED ? published : unpublished).incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) writer.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Status last = contentRepository.findById(id).orElseThrow().getStatus();
+        assertThat(published.get() - unpublished.get()).isEqualTo(last == Status.PUBLISHED ? 1 : 0);
+    }
+
+    @Test
+    void shouldDeleteExactlyOnceUnderConcurrentDeletes() throws Exception {
+        Integer id = save("Title", Status.DRAFT, author);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger deleted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> deletes = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                deletes.add(pool.submit(() -> {
+                    await(start);
+                    if (deleteOwn(id, author).isPresent()) deleted.incrementAndGet();
+                }));
+            }
+            start.countDown();
+            for (Future<?> delete : deletes) delete.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(deleted.get()).isEqualTo(1);
+        assertThat(contentRepository.existsById(id)).isFalse();
+    }
+
+    @Test
+    void shouldLetOthersDeleteOnlyPublishedContentWhenStatusAllows() {
+        Integer draft = save("Draft", Status.DRAFT, author);
+        Integer published = save("Published", Status.PUBLISHED, author);
+
+        assertThat(deleteOwn(published, other)).isEmpty();
+        assertThat(deleteOwnOrPublished(draft, other)).isEmpty();
+        assertThat(deleteOwnOrPublished(published, other)).contains(Status.PUBLISHED);
+
+        assertThat(contentRepository.existsById(draft)).isTrue();
+        assertThat(contentRepository.existsById(published)).isFalse();
+        assertThat(deleteOwn(draft, author)).contains(Status.DRAFT);
+        assertThat(contentRepository.existsById(draft)).isFalse();
+    }
+
+    private Integer save(String title, Status status, User owner) {
+        return contentRepository.save(new Content(title, "Body", status, owner)).getId();
+    }
+
+    private Optional<Status> update(Integer id, User caller, String title, String desc, Status status) {
+        return update(id, caller, null, title, desc, status);
+    }
+
+    private Optional<Status> update(Integer id, User caller, Long version, String title, String desc, Status status) {
+        return tx.execute(s -> contentRepository.updateReturningPreviousStatus(
+                id, caller.getId(), version, title, desc, status, LocalDateTime.now()));
+    }
+
+    private Optional<Status> deleteOwn(Integer id, User caller) {
+        return tx.execute(s -> contentRepository.deleteReturningStatus(id, caller.getId()));
+    }
+
+    private Optional<Status> deleteOwnOrPublished(Integer id, User caller) {
+        return tx.execute(s -> contentRepository.deleteReturningStatus(id, caller.getId(), Status.PUBLISHED));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that list queries load authors in the same statement, so mapping
+ * author usernames costs a fixed number of statements regardless of page size.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fetchdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.iamvusumzi.content_manager.repository.CapturedSql"
+})
+class ContentRepositoryFetchTest {
+
+    private static final int AUTHORS = 10;
+    private static final String SEEK = "\\(\\w+\\.date_created, ?\\w+\\.id\\) ?< ?\\(\\?, ?\\?\\)";
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Integer firstAuthorId;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int a = 0; a < AUTHORS; a++) {
+            User author = entityManager.persist(new User("author" + a, "secret", Role.USER));
+            if (firstAuthorId == null) firstAuthorId = author.getId();
+            for (int i = 0; i < 10; i++) {
+                Content content = new Content("Title " + a + "-" + i, "Body", Status.PUBLISHED, author);
+                content.setDateCreated(start.plusMinutes(a * 10L + i));
+                entityManager.persist(content);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void publishedFeedLoadsAuthorsInOneStatement() {
+        List<Content> contents = contentRepository.findByStatusOrderByDateCreatedDesc(Status.PUBLISHED);
+
+        assertThat(authorsOf(contents)).hasSize(AUTHORS * 10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void authorFeedLoadsAuthorInOneStatement() {
+        List<Content> contents = contentRepository.findByAuthorIdOrderByDateCreatedDesc(firstAuthorId);
+
+        assertThat(authorsOf(contents)).containsOnly("author0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void keysetPagesLoadAuthorsInOneStatement(int size) {
+        List<Content> contents = contentRepository.findFirstPageByStatus(Status.PUBLISHED, Limit.of(size));
+        Content last = contents.get(contents.size() - 1);
+        List<Content> next = contentRepository.findPageByStatusAfter(
+                Status.PUBLISHED, last.getDateCreated(), last.getId(), Limit.of(size));
+
+        assertThat(authorsOf(contents)).hasSize(size);
+        assertThat(authorsOf(next)).hasSize(size);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    // A row comparison is an index condition on Postgres; the equivalent OR is only a filter
+    @Test
+    void keysetPagesSeekWithARowComparison() {
+        LocalDateTime after = LocalDateTime.of(2025, 1, 1, 0, 50);
+        CapturedSql.clear();
+
+        contentRepository.findPageByStatusAfter(Status.PUBLISHED, after, 1000, Limit.of(5));
+        assertThat(CapturedSql.last()).containsPattern(SEEK).doesNotContainIgnoringCase(" or ");
+        contentRepository.findPageByAuthorIdAfter(firstAuthorId, after, 1000, Limit.of(5));
+        assertThat(CapturedSql.last()).containsPattern(SEEK).doesNotContainIgnoringCase(" or ");
+    }
+
+    @Test
+    void keysetPagesWalkRowsCreatedAtTheSameTimeWithoutGapsOrRepeats() {
+        User author = entityManager.find(User.class, firstAuthorId);
+        LocalDateTime tie = LocalDateTime.of(2025, 1, 1, 0, 5);
+        for (int i = 0; i < 7; i++) {
+            Content content = new Content("Tie " + i, "Body", Status.PUBLISHED, author);
+            content.setDateCreated(tie);
+            entityManager.persist(content);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Integer> walked = new ArrayList<>();
+        List<Content> page = contentRepository.findFirstPageByAuthorId(firstAuthorId, Limit.of(3));
+        while (!page.isEmpty()) {
+            page.forEach(content -> walked.add(content.getId()));
+            Content last = page.get(page.size() - 1);
+            page = contentRepository.findPageByAuthorIdAfter(firstAuthorId, last.getDateCreated(), last.getId(), Limit.of(3));
+        }
+
+        List<Integer> expected = contentRepository.findByAuthorIdOrderByDateCreatedDesc(firstAuthorId).stream()
+                .sorted(Comparator.comparing(Content::getDateCreated).thenComparing(Content::getId).reversed())
+                .map(Content::getId)
+                .toList();
+        assertThat(walked).hasSize(17).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10})
+    void authorPagesLoadAuthorInOneStatement(int size) {
+        List<Content> contents = contentRepository.findFirstPageByAuthorId(firstAuthorId, Limit.of(size));
+
+        assertThat(authorsOf(contents)).hasSize(size).containsOnly("author0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exportStreamsNewestFirstInOneStatementAndDetachesRows() {
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        List<String> authors = new ArrayList<>();
+        List<LocalDateTime> created = new ArrayList<>();
+
+        long count = contentRepository.forEachByStatus(Status.PUBLISHED, content -> {
+            authors.add(content.getAuthor().getUsername());
+            created.add(content.getDateCreated());
+            // Only the current row (and its author) is ever managed
+            assertThat(session.getStatistics().getEntityCount()).isLessThanOrEqualTo(2);
+        });
+
+        assertThat(count).isEqualTo(AUTHORS * 10);
+        assertThat(authors).hasSize(AUTHORS * 10).first().isEqualTo("author9");
+        assertThat(created).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private List<String> authorsOf(List<Content> contents) {
+        return contents.stream().map(c -> c.getAuthor().getUsername()).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package com.iamvusumzi.content_manager.repository;
+
+import com.iamvusumzi.content_manager.model.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the real Flyway migrations against H2, calls the repository's feed queries and
+ * EXPLAINs the SQL Hibernate actually sent, checking each is answered from its composite
+ * index rather than a full table scan.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indexdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        // The Postgres dialect reads sequence metadata from a lower-case information_schema H2 does not have
+        "spring.jpa.properties.hibernate.id.sequence.increment_size_mismatch_strategy=none",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.iamvusumzi.content_manager.repository.CapturedSql"
+})
+class ContentRepositoryIndexTest {
+
+    private static final int AUTHORS = 50;
+    private static final int ROWS = 5_000;
+    private static final LocalDateTime AFTER = LocalDateTime.of(2025, 1, 2, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @BeforeEach
+    void seed() {
+        CapturedSql.clear();
+        // H2 backs a foreign key with an index of its own, which would answer the author lookups
+        // in place of idx_content_author_created. Postgres creates no such index.
+        jdbcTemplate.execute("ALTER TABLE content DROP CONSTRAINT IF EXISTS fk_content_author");
+        jdbcTemplate.update("DELETE FROM content");
+        jdbcTemplate.update("DELETE FROM users");
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= AUTHORS; i++) {
+            users.add(new Object[]{i, "author" + i, "secret", "USER"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, role) VALUES (?, ?, ?, ?)", users);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            String status = i % 4 == 0 ? "DRAFT" : "PUBLISHED";
+            rows.add(new Object[]{"Title " + i, "Body " + i, status,
+                    Timestamp.valueOf(start.plusMinutes(i)), (i % AUTHORS) + 1});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO content (title, description, status, date_created, author_id) VALUES (?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void feedByStatusUsesStatusIndex() {
+        String status = Status.PUBLISHED.name();
+
+        contentRepository.findByStatusOrderByDateCreatedDesc(Status.PUBLISHED);
+        assertThat(explainLast(status)).contains("PUBLIC.idx_content_status_created: status = ?1");
+
+        contentRepository.findFirstPageByStatus(Status.PUBLISHED, Limit.of(21));
+        assertThat(explainLast(status, 21)).contains("PUBLIC.idx_content_status_created: status = ?1");
+
+        contentRepository.findPageByStatusAfter(Status.PUBLISHED, AFTER, 1_000, Limit.of(21));
+        // The seek bounds the index scan instead of being filtered row by row
+        assertThat(explainLast(status, AFTER, 1_000, 21))
+                .containsPattern("PUBLIC\\.idx_content_status_created: status = \\?1\\s+AND date_created <= \\?2");
+    }
+
+    @Test
+    void feedByAuthorUsesAuthorIndex() {
+        contentRepository.findByAuthorIdOrderByDateCreatedDesc(7);
+        assertThat(explainLast(7)).contains("PUBLIC.idx_content_author_created: author_id = ?1");
+
+        contentRepository.findFirstPageByAuthorId(7, Limit.of(21));
+        assertThat(explainLast(7, 21)).contains("PUBLIC.idx_content_author_created: author_id = ?1");
+
+        contentRepository.findPageByAuthorIdAfter(7, AFTER, 1_000, Limit.of(21));
+        assertThat(explainLast(7, AFTER, 1_000, 21))
+                .containsPattern("PUBLIC\\.idx_content_author_created: author_id = \\?1\\s+AND date_created <= \\?2");
+    }
+
+    // Parameters in the order the statement binds them, with the page limit last
+    private String explainLast(Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + CapturedSql.last(), String.class, parameters);
+        assertThat(plan).doesNotContain("tableScan");
+        return plan;
+    }
+}
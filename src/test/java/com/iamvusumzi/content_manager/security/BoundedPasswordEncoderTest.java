@@ -0,0 +1,79 @@
+package com.iamvusumzi.content_manager.security;
+
+import com.iamvusumzi.content_manager.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void shouldHashOnTheHashingPool() {
+        encoder = new BoundedPasswordEncoder(new SlowEncoder(), 1, 1);
+        release.countDown();
+
+        assertThat(encoder.encode("secret")).isEqualTo("hashed-by-password-hashing-1:secret");
+        assertThat(encoder.matches("secret", "anything")).isTrue();
+    }
+
+    @Test
+    void shouldShedCallsOnceThePoolAndQueueAreFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new SlowEncoder(), 1, 1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(hashing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        waitForQueuedTask();
+
+        assertThatThrownBy(() -> encoder.matches("third", "anything"))
+                .isInstanceOf(ServiceBusyException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).endsWith(":first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).endsWith(":second");
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (encoder.queued() == 0) {
+            assertThat(System.nanoTime()).as("second hash never queued").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // Blocks until released and records which thread did the work
+    private class SlowEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed-by-" + Thread.currentThread().getName() + ":" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.iamvusumzi.content_manager.security;
+
+import com.iamvusumzi.content_manager.model.Role;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "mysupersecurejwtsecretkeymysupersecurejwtsecretkey";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldPutTypedPrincipalInSecurityContext() throws Exception {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        FilterChain chain = (request, response) -> seen.set(SecurityContextHolder.getContext().getAuthentication());
+
+        filter.doFilter(requestWith(jwtUtil.generateToken(7, "vusumzi", "ADMIN")), new MockHttpServletResponse(), chain);
+
+        assertThat(seen.get().getPrincipal()).isEqualTo(new AuthenticatedUser(7, "vusumzi", Role.ADMIN));
+        assertThat(seen.get().getName()).isEqualTo("vusumzi");
+        assertThat(seen.get().getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void shouldRejectTokenWithoutUserId() throws Exception {
+        String legacyToken = Jwts.builder()
+                .setSubject("vusumzi")
+                .claim("role", "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(requestWith(legacyToken), response, (req, res) -> { });
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        assertThat(response.getErrorMessage()).isEqualTo("Invalid token");
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private static MockHttpServletRequest requestWith(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contents/my");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,55 @@
+package com.iamvusumzi.content_manager.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "mysupersecurejwtsecretkeymysupersecurejwtsecretkey";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+
+    @Test
+    void shouldExtractClaimsFromGeneratedToken() {
+        String token = jwtUtil.generateToken(1, "vusumzi", "USER");
+
+        Claims claims = jwtUtil.extractClaims(token);
+
+        assertThat(claims.getSubject()).isEqualTo("vusumzi");
+        assertThat(claims.get("role", String.class)).isEqualTo("USER");
+        assertThat(jwtUtil.extractUserId(token)).isEqualTo(1);
+        assertThat(jwtUtil.validateToken(token, "vusumzi")).isTrue();
+    }
+
+    @Test
+    void shouldServeRepeatedTokenFromVerifiedCache() {
+        String token = jwtUtil.generateToken(1, "vusumzi", "USER");
+
+        assertThat(jwtUtil.extractClaims(token)).isSameAs(jwtUtil.extractClaims(token));
+    }
+
+    @Test
+    void shouldRejectTamperedTokenEvenAfterOriginalWasCached() {
+        String token = jwtUtil.generateToken(1, "vusumzi", "USER");
+        jwtUtil.extractClaims(token);
+
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        String forged = token.substring(0, token.lastIndexOf('.') + 1)
+                + (signature.charAt(0) == 'A' ? 'B' : 'A') + signature.substring(1);
+
+        assertThatThrownBy(() -> jwtUtil.extractClaims(forged)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        JwtUtil expiring = new JwtUtil(SECRET, -1_000, 100);
+        String token = expiring.generateToken(1, "vusumzi", "USER");
+
+        assertThatThrownBy(() -> expiring.extractClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.iamvusumzi.content_manager.security;
+
+import com.iamvusumzi.content_manager.model.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> passed.incrementAndGet();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAllowABurstThenRefillAtTheConfiguredRate() throws Exception {
+        RateLimitFilter filter = filter("POST /api/auth/login 60/m burst=3");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse limited = send(filter, "POST", "/api/auth/login", "10.0.0.1");
+
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(limited.getContentAsString()).contains("Too many requests");
+        assertThat(passed).hasValue(3);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void shouldKeyBucketsByUserWhenAuthenticatedAndByAddressOtherwise() throws Exception {
+        RateLimitFilter filter = filter("* /api/contents/** 1/m burst=1");
+
+        assertThat(send(filter, "GET", "/api/contents", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET", "/api/contents", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET", "/api/contents", "10.0.0.1").getStatus()).isEqualTo(429);
+
+        // Same address as an exhausted anonymous bucket, but the user has a bucket of their own
+        authenticate(new AuthenticatedUser(7, "vusumzi", Role.USER));
+        assertThat(send(filter, "POST", "/api/contents", "10.0.0.1").getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = send(filter, "PUT", "/api/contents/3", "10.0.0.9");
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("60");
+    }
+
+    @Test
+    void shouldApplyOnlyTheFirstMatchingRule() throws Exception {
+        RateLimitFilter filter = filter("GET /api/contents/** 1/m burst=1", "* /api/** 100/s");
+
+        assertThat(send(filter, "GET", "/api/contents/1", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET", "/api/contents/1", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send(filter, "POST", "/api/contents", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "GET", "/actuator/health", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void shouldShedRequestsBeyondTheConcurrencyLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 1000, 0.9);
+        CountDownLatch inChain = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RateLimitFilter filter = new RateLimitFilter(List.of(), limiter, new SimpleMeterRegistry());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                filter.doFilter(request("GET", "/api/contents", "10.0.0.1"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            inChain.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+                return null;
+            });
+            assertThat(inChain.await(5, TimeUnit.SECONDS)).isTrue();
+
+            MockHttpServletResponse shed = send(filter, "GET", "/api/contents", "10.0.0.2");
+
+            assertThat(shed.getStatus()).isEqualTo(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldRejectMalformedRules() {
+        assertThatThrownBy(() -> RateLimitRule.parse("GET /api/contents", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRule.parse("GET /api/contents 10/d", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRule.parse("GET /api/contents 10/s burst=0", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RateLimitFilter filter(String... rules) {
+        List<RateLimitRule> parsed = List.of(rules).stream()
+                .map(rule -> RateLimitRule.parse(rule, 100, clock::get))
+                .toList();
+        return new RateLimitFilter(parsed, null, new SimpleMeterRegistry());
+    }
+
+    private MockHttpServletResponse send(RateLimitFilter filter, String method, String uri, String address)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri, address), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static void authenticate(AuthenticatedUser user) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
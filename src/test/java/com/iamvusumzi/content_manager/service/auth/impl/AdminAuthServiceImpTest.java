@@ -49,8 +49,12 @@ class AdminAuthServiceImpTest {
 
         when(userRepository.findByUsername("adminUser")).thenReturn(Optional.empty());
         when(passwordEncoder.encode("plainPass")).thenReturn("encodedPass");
-        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(jwtUtil.generateToken("adminUser", "ADMIN")).thenReturn("fake-jwt-token");
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> {
+            User saved = inv.getArgument(0);
+            saved.setId(5);
+            return saved;
+        });
+        when(jwtUtil.generateToken(5, "adminUser", "ADMIN")).thenReturn("fake-jwt-token");
 
         AuthResponse response = adminAuthService.register(request);
 
@@ -62,7 +66,7 @@ class AdminAuthServiceImpTest {
         verify(userRepository).findByUsername("adminUser");
         verify(passwordEncoder).encode("plainPass");
         verify(userRepository).save(any(User.class));
-        verify(jwtUtil).generateToken("adminUser", "ADMIN");
+        verify(jwtUtil).generateToken(5, "adminUser", "ADMIN");
     }
 
     @Test
@@ -81,7 +85,7 @@ class AdminAuthServiceImpTest {
         assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
         assertEquals("Username already exists", ex.getReason());
         verify(userRepository, never()).save(any());
-        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(jwtUtil, never()).generateToken(any(), any(), any());
     }
 
     @Test
@@ -98,6 +102,6 @@ class AdminAuthServiceImpTest {
 
         assertEquals(HttpStatus.FORBIDDEN, ex.getStatusCode());
         verify(userRepository, never()).save(any());
-        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(jwtUtil, never()).generateToken(any(), any(), any());
     }
 }
@@ -65,7 +65,7 @@ class BaseAuthServiceTest {
 
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(existingUser));
         when(passwordEncoder.matches("rawPass", "encodedPass")).thenReturn(true);
-        when(jwtUtil.generateToken("testUser", "USER")).thenReturn("fake-jwt-token");
+        when(jwtUtil.generateToken(1, "testUser", "USER")).thenReturn("fake-jwt-token");
 
         AuthResponse response = baseAuthService.login(request);
 
@@ -75,7 +75,26 @@ class BaseAuthServiceTest {
         assertEquals("USER", response.getRole());
         verify(userRepository).findByUsername("testUser");
         verify(passwordEncoder).matches("rawPass", "encodedPass");
-        verify(jwtUtil).generateToken("testUser", "USER");
+        verify(jwtUtil).generateToken(1, "testUser", "USER");
+        verify(userRepository, never()).updatePassword(any(), any(), any());
+    }
+
+    @Test
+    void shouldRehashOutdatedPassword_WhenLoginSucceeds() {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testUser");
+        request.setPassword("rawPass");
+
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(existingUser));
+        when(passwordEncoder.matches("rawPass", "encodedPass")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("encodedPass")).thenReturn(true);
+        when(passwordEncoder.encode("rawPass")).thenReturn("{bcrypt}rehashed");
+        when(jwtUtil.generateToken(1, "testUser", "USER")).thenReturn("fake-jwt-token");
+
+        AuthResponse response = baseAuthService.login(request);
+
+        assertEquals("fake-jwt-token", response.getToken());
+        verify(userRepository).updatePassword(1, "encodedPass", "{bcrypt}rehashed");
     }
 
     @Test
@@ -92,7 +111,7 @@ class BaseAuthServiceTest {
         assertEquals("Invalid username or password", exception.getMessage());
         verify(userRepository).findByUsername("ghost");
         verify(passwordEncoder, never()).matches(any(), any());
-        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(jwtUtil, never()).generateToken(any(), any(), any());
     }
 
     @Test
@@ -109,6 +128,7 @@ class BaseAuthServiceTest {
 
         assertEquals("Invalid username or password", exception.getMessage());
         verify(passwordEncoder).matches("wrongPass", "encodedPass");
-        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(passwordEncoder, never()).encode(any());
+        verify(jwtUtil, never()).generateToken(any(), any(), any());
     }
 }
@@ -53,8 +53,12 @@ class UserAuthServiceImplTest {
 
         when(userRepository.findByUsername("newUser")).thenReturn(Optional.empty());
         when(passwordEncoder.encode("plainPass")).thenReturn("encodedPass");
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(jwtUtil.generateToken("newUser", "USER")).thenReturn("fake-jwt-token");
+        // The id is assigned to the entity passed in, as persist() does
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> {
+            inv.<User>getArgument(0).setId(5);
+            return savedUser;
+        });
+        when(jwtUtil.generateToken(5, "newUser", "USER")).thenReturn("fake-jwt-token");
 
         AuthResponse response = userAuthService.register(request);
 
@@ -66,7 +70,7 @@ class UserAuthServiceImplTest {
         verify(userRepository).findByUsername("newUser");
         verify(passwordEncoder).encode("plainPass");
         verify(userRepository).save(any(User.class));
-        verify(jwtUtil).generateToken("newUser", "USER");
+        verify(jwtUtil).generateToken(5, "newUser", "USER");
     }
 
     // 🚫 2. Username already exists
@@ -86,6 +90,6 @@ class UserAuthServiceImplTest {
         assertEquals("Username already exists", exception.getReason());
         verify(userRepository, never()).save(any());
         verify(passwordEncoder, never()).encode(any());
-        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(jwtUtil, never()).generateToken(any(), any(), any());
     }
 }
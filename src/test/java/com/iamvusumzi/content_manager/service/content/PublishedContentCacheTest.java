@@ -0,0 +1,248 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iamvusumzi.content_manager.config.CacheConfig;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublishedContentCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PublishedContentCache cache;
+    private AtomicInteger loads;
+    private Cache anonymousResponses;
+    private final List<Runnable> afterReplicaLag = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.PUBLISHED_CONTENT, Caffeine.newBuilder().maximumSize(10).build());
+        cacheManager.registerCustomCache(CacheConfig.PUBLISHED_FEED, Caffeine.newBuilder().maximumSize(10).build());
+        cacheManager.registerCustomCache(CacheConfig.ANONYMOUS_RESPONSES, Caffeine.newBuilder().maximumSize(10).build());
+        anonymousResponses = cacheManager.getCache(CacheConfig.ANONYMOUS_RESPONSES);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PublishedContentCache(cacheManager, meterRegistry, 1000, afterReplicaLag::add);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldServePublishedContentFromCache() {
+        Content published = content(10, Status.PUBLISHED);
+
+        cache.getContent(10, () -> load(published));
+        Content second = cache.getContent(10, () -> load(published));
+
+        assertThat(second).isSameAs(published);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldNeverCacheDrafts() {
+        Content draft = content(10, Status.DRAFT);
+
+        cache.getContent(10, () -> load(draft));
+        cache.getContent(10, () -> load(draft));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldDeferEvictionUntilCommitInsideTransaction() {
+        Content published = content(10, Status.PUBLISHED);
+        cache.getContent(10, () -> load(published));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict(10, Status.PUBLISHED, Status.DRAFT);
+            assertThat(cache.peekContent(10)).isSameAs(published);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(cache.peekContent(10)).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldNotCacheALoadThatOverlappedAnEviction() {
+        Content stale = content(10, Status.PUBLISHED);
+
+        // The write commits while the load is reading the row it replaced
+        Content loaded = cache.getContent(10, () -> {
+            cache.evict(10, Status.PUBLISHED, Status.PUBLISHED);
+            return load(stale);
+        });
+
+        assertThat(loaded).isSameAs(stale);
+        assertThat(cache.peekContent(10)).isNull();
+        cache.getContent(10, () -> load(content(10, Status.PUBLISHED)));
+        assertThat(cache.peekContent(10)).isNotSameAs(stale).isNotNull();
+    }
+
+    @Test
+    void shouldNotCacheAFeedLoadThatOverlappedAnEviction() {
+        Content stale = content(10, Status.PUBLISHED);
+
+        // Content 10 is unpublished while the feed and a page are being read
+        List<Content> feed = cache.getFeed(() -> {
+            cache.evict(10, Status.PUBLISHED, Status.DRAFT);
+            return load(List.of(stale));
+        });
+        ContentPage page = cache.getFeedPage(null, 20, () -> {
+            cache.evict(10, Status.PUBLISHED, Status.DRAFT);
+            return load(new ContentPage(List.of(stale), null));
+        });
+
+        assertThat(feed).containsExactly(stale);
+        assertThat(page.getContents()).containsExactly(stale);
+        assertThat(cache.getFeed(() -> load(List.of()))).isEmpty();
+        assertThat(cache.getFeedPage(null, 20, () -> load(new ContentPage(List.of(), null))).getContents()).isEmpty();
+        // Loads that did not overlap an eviction are cached as usual
+        cache.getFeed(() -> load(List.of(stale)));
+        cache.getFeedPage(null, 20, () -> load(new ContentPage(List.of(stale), null)));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void shouldNotCacheAFeedReadOnAnotherThreadDuringAnEviction() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Content>> stale = reader.submit(() -> cache.getFeed(() -> {
+                reading.countDown();
+                await(evicted);
+                return load(List.of(content(10, Status.PUBLISHED)));
+            }));
+            reading.await();
+            cache.evict(10, Status.PUBLISHED, Status.DRAFT);
+            evicted.countDown();
+
+            assertThat(stale.get(5, TimeUnit.SECONDS)).hasSize(1);
+        } finally {
+            reader.shutdown();
+        }
+        assertThat(cache.getFeed(() -> load(List.of()))).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldKeepFeedWhenOnlyDraftsChange() {
+        cache.getFeed(() -> load(List.of()));
+
+        cache.evict(11, Status.DRAFT, Status.DRAFT);
+        cache.getFeed(() -> load(List.of()));
+
+        assertThat(loads).hasValue(1);
+        assertThat(invalidations(CacheConfig.PUBLISHED_FEED)).isZero();
+    }
+
+    @Test
+    void shouldEvictItemAndFeedWhenPublishedContentChanges() {
+        Content published = content(10, Status.PUBLISHED);
+        cache.getContent(10, () -> load(published));
+        cache.getFeed(() -> load(List.of(published)));
+        cache.getFeedPage(null, 20, () -> load(new ContentPage(List.of(published), null)));
+
+        cache.evict(10, Status.PUBLISHED, Status.DRAFT);
+
+        cache.getContent(10, () -> load(published));
+        cache.getFeed(() -> load(List.of()));
+        cache.getFeedPage(null, 20, () -> load(new ContentPage(List.of(), null)));
+        assertThat(loads).hasValue(6);
+        assertThat(invalidations(CacheConfig.PUBLISHED_CONTENT)).isEqualTo(1);
+        assertThat(invalidations(CacheConfig.PUBLISHED_FEED)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldClearAnonymousResponsesOnlyWhenPublicContentChanges() {
+        anonymousResponses.put("/api/contents|", "cached");
+
+        cache.evict(11, Status.DRAFT, Status.DRAFT);
+        assertThat(anonymousResponses.get("/api/contents|")).isNotNull();
+        assertThat(cache.responseGeneration()).isZero();
+
+        cache.evict(10, Status.DRAFT, Status.PUBLISHED);
+        assertThat(anonymousResponses.get("/api/contents|")).isNull();
+        assertThat(cache.responseGeneration()).isEqualTo(1);
+        assertThat(invalidations(CacheConfig.ANONYMOUS_RESPONSES)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictChangesWrittenThroughOtherInstances() {
+        Content published = content(10, Status.PUBLISHED);
+        cache.getContent(10, () -> load(published));
+        cache.getFeed(() -> load(List.of(published)));
+        anonymousResponses.put("/api/contents|", "cached");
+
+        cache.onContentChanged(ContentChangedEvent.deleted(10, Status.PUBLISHED));
+
+        assertThat(cache.peekContent(10)).isNull();
+        assertThat(anonymousResponses.get("/api/contents|")).isNull();
+        cache.getFeed(() -> load(List.of()));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void shouldEvictAgainOnceReplicasHaveCaughtUp() {
+        Content stale = content(10, Status.PUBLISHED);
+        cache.getContent(10, () -> load(stale));
+        cache.evict(10, Status.PUBLISHED, Status.PUBLISHED);
+
+        // A read straight after the commit hits a lagging replica and caches the old row again
+        cache.getContent(10, () -> load(stale));
+        cache.getFeed(() -> load(List.of(stale)));
+        anonymousResponses.put("/api/contents/10|", "stale");
+        assertThat(cache.peekContent(10)).isSameAs(stale);
+
+        afterReplicaLag.forEach(Runnable::run);
+
+        assertThat(cache.peekContent(10)).isNull();
+        assertThat(anonymousResponses.get("/api/contents/10|")).isNull();
+        cache.getFeed(() -> load(List.of()));
+        assertThat(loads).hasValue(4);
+    }
+
+    private <T> T load(T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double invalidations(String cacheName) {
+        return meterRegistry.get("content.cache.invalidations").tag("cache", cacheName).counter().count();
+    }
+
+    private Content content(int id, Status status) {
+        Content content = new Content();
+        content.setId(id);
+        content.setStatus(status);
+        return content;
+    }
+}
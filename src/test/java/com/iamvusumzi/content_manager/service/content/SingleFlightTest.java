@@ -0,0 +1,130 @@
+package com.iamvusumzi.content_manager.service.content;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            results.add(executor.submit(() -> singleFlight.load(1, this::blockingLoad)));
+        }
+        awaitWaiters(19);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("single-flight.waiters").summary().max()).isEqualTo(19);
+        assertThat(meterRegistry.get("single-flight.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRethrowTheLoadFailureToEveryCaller() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+
+        Future<String> leader = executor.submit(() -> singleFlight.load(1, () -> {
+            blockingLoad();
+            throw new RuntimeException("Content not found");
+        }));
+        // The failing load must be the one that leads
+        awaitLoads(1);
+        Future<String> waiter = executor.submit(() -> singleFlight.load(1, this::blockingLoad));
+        awaitWaiters(1);
+        release.countDown();
+
+        for (Future<String> result : List.of(leader, waiter)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(RuntimeException.class)
+                    .hasRootCauseMessage("Content not found");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldLoadAloneOnceTheWaitRunsOut() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofMillis(50), meterRegistry);
+        executor.submit(() -> singleFlight.load(1, this::blockingLoad));
+        awaitLoads(1);
+
+        assertThat(singleFlight.load(1, () -> "own")).isEqualTo("own");
+        assertThat(count("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNeverMakeOtherKeysWait() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+        executor.submit(() -> singleFlight.load(1, this::blockingLoad));
+        awaitLoads(1);
+
+        assertThat(singleFlight.load(2, () -> "other")).isEqualTo("other");
+        assertThat(count("coalesced")).isZero();
+    }
+
+    @Test
+    void shouldStartAFreshLoadAfterForget() throws Exception {
+        SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Duration.ofSeconds(10), meterRegistry);
+        executor.submit(() -> singleFlight.load(1, this::blockingLoad));
+        awaitLoads(1);
+
+        singleFlight.forget(1);
+
+        assertThat(singleFlight.load(1, () -> "after write")).isEqualTo("after write");
+    }
+
+    private String blockingLoad() {
+        loads.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "loaded";
+    }
+
+    private double count(String role) {
+        return meterRegistry.get("single-flight.loads").tag("role", role).counter().count();
+    }
+
+    private void awaitLoads(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (loads.get() < expected && System.nanoTime() < deadline) Thread.sleep(5);
+        assertThat(loads).hasValue(expected);
+    }
+
+    private void awaitWaiters(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < expected && System.nanoTime() < deadline) Thread.sleep(5);
+        assertThat(count("coalesced")).isEqualTo(expected);
+    }
+}
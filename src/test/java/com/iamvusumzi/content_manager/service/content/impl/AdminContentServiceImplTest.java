@@ -1,17 +1,26 @@
 package com.iamvusumzi.content_manager.service.content.impl;
 
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
 import com.iamvusumzi.content_manager.model.Status;
 import com.iamvusumzi.content_manager.model.User;
 import com.iamvusumzi.content_manager.repository.ContentRepository;
-import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult.Outcome;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import com.iamvusumzi.content_manager.service.content.outbox.ContentOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -20,6 +29,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -34,11 +46,17 @@ class AdminContentServiceImplTest {
     private ContentRepository contentRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ContentOutbox contentOutbox;
+
+    @Spy
+    private PublishedContentCache publishedContentCache =
+            new PublishedContentCache(new NoOpCacheManager(), new SimpleMeterRegistry(), 1000, null, 0);
 
     @InjectMocks
     private AdminContentServiceImpl adminContentService;
 
+    private static final AuthenticatedUser ADMIN = new AuthenticatedUser(1, "admin", Role.ADMIN);
+
     private User admin;
     private Content content;
 
@@ -70,40 +88,25 @@ class AdminContentServiceImplTest {
         request.setTitle("Admin Post");
         request.setDesc("Admin description");
         request.setStatus("PUBLISHED");
-
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
         when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Content created = adminContentService.createContent("admin", request);
+        Content created = adminContentService.createContent(ADMIN, request);
 
         assertThat(created.getTitle()).isEqualTo("Admin Post");
-        assertThat(created.getAuthor()).isEqualTo(admin);
+        assertThat(created.getAuthor().getId()).isEqualTo(admin.getId());
+        assertThat(created.getAuthor().getRole()).isEqualTo(Role.ADMIN);
         verify(contentRepository).save(any(Content.class));
     }
 
-    @Test
-    void shouldThrowWhenUserNotFound_OnCreate() {
-        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
-
-        ContentRequest req = new ContentRequest();
-        req.setTitle("Title");
-        req.setStatus("DRAFT");
-
-        assertThatThrownBy(() -> adminContentService.createContent("ghost", req))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("User not found");
-    }
-
     // ----------------------------
     // getMyContents()
     // ----------------------------
     @Test
     void shouldReturnMyContents() {
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
         when(contentRepository.findByAuthorIdOrderByDateCreatedDesc(admin.getId()))
                 .thenReturn(List.of(content));
 
-        List<Content> results = adminContentService.getMyContents("admin");
+        List<Content> results = adminContentService.getMyContents(ADMIN);
 
         assertThat(results).hasSize(1);
         assertThat(results.get(0).getTitle()).isEqualTo("Sample Content");
@@ -133,7 +136,7 @@ class AdminContentServiceImplTest {
         content.setStatus(Status.PUBLISHED);
         when(contentRepository.findById(10)).thenReturn(Optional.of(content));
 
-        Content result = adminContentService.getContentById(10, "admin");
+        Content result = adminContentService.getContentById(10, ADMIN);
 
         assertThat(result).isEqualTo(content);
     }
@@ -141,9 +144,8 @@ class AdminContentServiceImplTest {
     @Test
     void shouldThrowWhenContentByIdNotPublished() {
         when(contentRepository.findById(10)).thenReturn(Optional.of(content));
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
 
-        assertThatThrownBy(() -> adminContentService.getContentById( 10, "admin"))
+        assertThatThrownBy(() -> adminContentService.getContentById(10, ADMIN))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("not authorized");
     }
@@ -152,7 +154,7 @@ class AdminContentServiceImplTest {
     void shouldThrowWhenContentNotFound_OnGetById() {
         when(contentRepository.findById(99)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> adminContentService.getContentById(99, "admin"))
+        assertThatThrownBy(() -> adminContentService.getContentById(99, ADMIN))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Content not found");
     }
@@ -170,27 +172,31 @@ class AdminContentServiceImplTest {
         req.setDesc("Updated Desc");
         req.setStatus("PUBLISHED");
 
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), isNull(), eq("Updated Title"), eq("Updated Desc"),
+                eq(Status.PUBLISHED), any(LocalDateTime.class))).thenAnswer(inv -> {
+                    content.setTitle("Updated Title");
+                    content.setStatus(Status.PUBLISHED);
+                    return Optional.of(Status.DRAFT);
+                });
         when(contentRepository.findById(content.getId())).thenReturn(Optional.of(content));
-        when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Content updated = adminContentService.updateContent("admin", content.getId(), req);
+        Content updated = adminContentService.updateContent(ADMIN, content.getId(), req, null);
 
         assertThat(updated.getTitle()).isEqualTo("Updated Title");
         assertThat(updated.getStatus()).isEqualTo(Status.PUBLISHED);
-        verify(contentRepository).save(content);
     }
 
     @Test
     void shouldThrowAccessDeniedWhenUpdatingNotOwnedContent() {
-        // content belongs to someone else
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
-        when(contentRepository.findById(content.getId())).thenReturn(Optional.of(content));
+        // content belongs to someone else, so the conditional update matches no row
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), isNull(), eq("Attempted Update"), isNull(), isNull(),
+                any(LocalDateTime.class))).thenReturn(Optional.empty());
+        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
 
         ContentRequest req = new ContentRequest();
         req.setTitle("Attempted Update");
 
-        assertThatThrownBy(() -> adminContentService.updateContent("admin", content.getId(), req))
+        assertThatThrownBy(() -> adminContentService.updateContent(ADMIN, content.getId(), req, null))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("not authorized");
     }
@@ -200,35 +206,68 @@ class AdminContentServiceImplTest {
     // ----------------------------
     @Test
     void shouldDeletePublishedContentByOtherAuthor() {
-        content.setStatus(Status.PUBLISHED);
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
-        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+        when(contentRepository.deleteReturningStatus(10, 1, Status.PUBLISHED)).thenReturn(Optional.of(Status.PUBLISHED));
 
-        adminContentService.deleteContent("admin", 10);
+        adminContentService.deleteContent(ADMIN, 10);
 
-        verify(contentRepository).delete(content);
+        verify(publishedContentCache).evict(10, Status.PUBLISHED, null);
     }
 
     @Test
     void shouldDeleteOwnDraftContent() {
         content.setAuthor(admin);
 
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
-        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+        when(contentRepository.deleteReturningStatus(10, 1, Status.PUBLISHED)).thenReturn(Optional.of(Status.DRAFT));
 
-        adminContentService.deleteContent("admin", 10);
+        adminContentService.deleteContent(ADMIN, 10);
 
-        verify(contentRepository).delete(content);
+        verify(contentRepository, never()).existsById(any());
+        // The feed never showed it, so nothing public is evicted
+        verify(publishedContentCache).evict(10, Status.DRAFT, null);
     }
 
     @Test
     void shouldThrowWhenDeletingOthersDraft() {
-        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
-        when(contentRepository.findById(12)).thenReturn(Optional.of(content));
+        when(contentRepository.deleteReturningStatus(12, 1, Status.PUBLISHED)).thenReturn(Optional.empty());
+        when(contentRepository.existsById(12)).thenReturn(true);
 
-        assertThatThrownBy(() -> adminContentService.deleteContent("admin", 12))
+        assertThatThrownBy(() -> adminContentService.deleteContent(ADMIN, 12))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("not allowed");
     }
 
+    @Test
+    void shouldThrowWhenContentNotFound_OnDelete() {
+        when(contentRepository.deleteReturningStatus(99, 1, Status.PUBLISHED)).thenReturn(Optional.empty());
+        when(contentRepository.existsById(99)).thenReturn(false);
+
+        assertThatThrownBy(() -> adminContentService.deleteContent(ADMIN, 99))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Content not found");
+    }
+
+    // ----------------------------
+    // applyBatch()
+    // ----------------------------
+    @Test
+    void shouldBatchDeletePublishedContentByOtherAuthorButNotDrafts() {
+        Content published = new Content("Published", "Desc", Status.PUBLISHED, content.getAuthor());
+        published.setId(11);
+        when(contentRepository.findAllById(anyIterable())).thenReturn(List.of(content, published));
+
+        List<ContentBatchResult> results = adminContentService.applyBatch(ADMIN,
+                List.of(deleteOp(11), deleteOp(10)));
+
+        assertThat(results).extracting(ContentBatchResult::getOutcome)
+                .containsExactly(Outcome.DELETED, Outcome.FORBIDDEN);
+        verify(contentRepository).deleteAll(List.of(published));
+        verify(publishedContentCache).evict(11, Status.PUBLISHED, null);
+    }
+
+    private static ContentBatchOperation deleteOp(Integer id) {
+        ContentBatchOperation operation = new ContentBatchOperation();
+        operation.setOp("DELETE");
+        operation.setId(id);
+        return operation;
+    }
 }
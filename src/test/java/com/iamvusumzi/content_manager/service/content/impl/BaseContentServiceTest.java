@@ -1,16 +1,28 @@
 package com.iamvusumzi.content_manager.service.content.impl;
 
 import com.iamvusumzi.content_manager.dto.ContentRequest;
+import com.iamvusumzi.content_manager.exception.PreconditionFailedException;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
 import com.iamvusumzi.content_manager.model.Status;
 import com.iamvusumzi.content_manager.model.User;
 import com.iamvusumzi.content_manager.repository.ContentRepository;
-import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import com.iamvusumzi.content_manager.service.content.outbox.ContentOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.iamvusumzi.content_manager.service.content.ContentCursor;
+import com.iamvusumzi.content_manager.service.content.ContentPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -19,6 +31,8 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -32,7 +46,13 @@ class BaseContentServiceTest {
     private ContentRepository contentRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ContentOutbox contentOutbox;
+
+    @Spy
+    private PublishedContentCache publishedContentCache =
+            new PublishedContentCache(new NoOpCacheManager(), new SimpleMeterRegistry(), 1000, null, 0);
+
+    private static final AuthenticatedUser PRINCIPAL = new AuthenticatedUser(1, "vusumzi", Role.USER);
 
     private BaseContentService baseContentService;
 
@@ -41,7 +61,7 @@ class BaseContentServiceTest {
 
     @BeforeEach
     void setUp() {
-        baseContentService = new TestableContentService(contentRepository, userRepository);
+        baseContentService = new TestableContentService(contentRepository, publishedContentCache, contentOutbox);
 
         user = new User();
         user.setId(1);
@@ -64,29 +84,30 @@ class BaseContentServiceTest {
         request.setTitle("My Article");
         request.setDesc("Description");
         request.setStatus("DRAFT");
-
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
         when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Content created = baseContentService.createNewContent("vusumzi", request);
+        Content created = baseContentService.createNewContent(PRINCIPAL, request);
 
-        assertThat(created.getAuthor()).isEqualTo(user);
+        assertThat(created.getAuthor().getId()).isEqualTo(user.getId());
         assertThat(created.getTitle()).isEqualTo("My Article");
         assertThat(created.getStatus()).isEqualTo(Status.DRAFT);
         verify(contentRepository).save(any(Content.class));
+        verify(publishedContentCache).evict(null, null, Status.DRAFT);
     }
 
     @Test
-    void shouldThrowWhenUserNotFound_OnCreate() {
-        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+    void shouldWriteAuthorFromPrincipalWithoutLoadingUser() {
+        ContentRequest request = new ContentRequest();
+        request.setTitle("Title");
+        request.setStatus("PUBLISHED");
 
-        ContentRequest req = new ContentRequest();
-        req.setTitle("Title");
-        req.setStatus("DRAFT");
+        when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        assertThatThrownBy(() -> baseContentService.createNewContent("unknown", req))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("User not found");
+        Content created = baseContentService.createNewContent(new AuthenticatedUser(7, "writer", Role.ADMIN), request);
+
+        assertThat(created.getAuthor().getId()).isEqualTo(7);
+        assertThat(created.getAuthor().getUsername()).isEqualTo("writer");
+        assertThat(created.getAuthor().getRole()).isEqualTo(Role.ADMIN);
     }
 
     // ----------------------------
@@ -94,24 +115,67 @@ class BaseContentServiceTest {
     // ----------------------------
     @Test
     void shouldFindContentsByAuthor() {
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
         when(contentRepository.findByAuthorIdOrderByDateCreatedDesc(user.getId()))
                 .thenReturn(List.of(content));
 
-        List<Content> result = baseContentService.findContentByAuthor("vusumzi");
+        List<Content> result = baseContentService.findContentByAuthor(PRINCIPAL);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getTitle()).isEqualTo("Existing");
         verify(contentRepository).findByAuthorIdOrderByDateCreatedDesc(user.getId());
     }
 
+    // ----------------------------
+    // findPublishedPage() / findContentByAuthorPage()
+    // ----------------------------
     @Test
-    void shouldThrowWhenUserNotFound_OnFindByAuthor() {
-        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+    void shouldReturnFirstPageWithNextCursorWhenMoreRowsExist() {
+        Content second = new Content();
+        second.setId(9);
+        second.setDateCreated(content.getDateCreated().minusMinutes(1));
+        Content third = new Content();
+        third.setId(8);
+        third.setDateCreated(content.getDateCreated().minusMinutes(2));
+
+        when(contentRepository.findFirstPageByStatus(Status.PUBLISHED, Limit.of(3)))
+                .thenReturn(List.of(content, second, third));
+
+        ContentPage page = baseContentService.findPublishedPage(null, 2);
+
+        assertThat(page.getContents()).containsExactly(content, second);
+        ContentCursor next = ContentCursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(9);
+        assertThat(next.getDateCreated()).isEqualTo(second.getDateCreated());
+    }
 
-        assertThatThrownBy(() -> baseContentService.findContentByAuthor("ghost"))
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining("User not found");
+    @Test
+    void shouldSeekPastCursorAndEndOnLastPage() {
+        String cursor = ContentCursor.of(content).encode();
+        when(contentRepository.findPageByStatusAfter(Status.PUBLISHED, content.getDateCreated(), 10, Limit.of(3)))
+                .thenReturn(List.of());
+
+        ContentPage page = baseContentService.findPublishedPage(cursor, 2);
+
+        assertThat(page.getContents()).isEmpty();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldPageContentsByAuthor() {
+        when(contentRepository.findFirstPageByAuthorId(eq(1), any(Limit.class)))
+                .thenReturn(List.of(content));
+
+        ContentPage page = baseContentService.findContentByAuthorPage(PRINCIPAL, null, 20);
+
+        assertThat(page.getContents()).containsExactly(content);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> baseContentService.findPublishedPage("not-a-cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
     }
 
     // ----------------------------
@@ -124,54 +188,125 @@ class BaseContentServiceTest {
         req.setDesc("Updated Desc");
         req.setStatus("PUBLISHED");
 
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), isNull(), eq("Updated Title"), eq("Updated Desc"),
+                eq(Status.PUBLISHED), any(LocalDateTime.class))).thenAnswer(inv -> {
+                    content.setTitle("Updated Title");
+                    content.setStatus(Status.PUBLISHED);
+                    return Optional.of(Status.DRAFT);
+                });
         when(contentRepository.findById(content.getId())).thenReturn(Optional.of(content));
-        when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Content updated = baseContentService.updateContentCommon("vusumzi", content.getId(), req);
+        Content updated = baseContentService.updateContentCommon(PRINCIPAL, content.getId(), req, null);
 
         assertThat(updated.getTitle()).isEqualTo("Updated Title");
         assertThat(updated.getStatus()).isEqualTo(Status.PUBLISHED);
-        verify(contentRepository).save(content);
+        verify(contentRepository, never()).save(any(Content.class));
+        verify(publishedContentCache).evict(10, Status.DRAFT, Status.PUBLISHED);
+
+        ArgumentCaptor<ContentChangedEvent> event = ArgumentCaptor.forClass(ContentChangedEvent.class);
+        verify(contentOutbox).append(event.capture());
+        assertThat(event.getValue().getContentId()).isEqualTo(10);
+        assertThat(event.getValue().getTitle()).isEqualTo("Updated Title");
+        assertThat(event.getValue().getStatus()).isEqualTo(Status.PUBLISHED);
+        assertThat(event.getValue().getPreviousStatus()).isEqualTo(Status.DRAFT);
+    }
+
+    @Test
+    void shouldKeepFeedWhenUpdateLeavesDraftStatusAlone() {
+        ContentRequest req = new ContentRequest();
+        req.setDesc("Still a draft");
+
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), isNull(), isNull(), eq("Still a draft"), isNull(),
+                any(LocalDateTime.class))).thenReturn(Optional.of(Status.DRAFT));
+        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+
+        baseContentService.updateContentCommon(PRINCIPAL, 10, req, null);
+
+        verify(publishedContentCache).evict(10, Status.DRAFT, Status.DRAFT);
     }
 
     @Test
     void shouldThrowWhenNotAuthor_OnUpdate() {
         User anotherUser = new User();
         anotherUser.setId(2);
-        anotherUser.setUsername("someoneelse");
         content.setAuthor(anotherUser);
 
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
-        when(contentRepository.findById(content.getId())).thenReturn(Optional.of(content));
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), isNull(), eq("Try Update"), isNull(), isNull(),
+                any(LocalDateTime.class))).thenReturn(Optional.empty());
+        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
 
         ContentRequest req = new ContentRequest();
         req.setTitle("Try Update");
 
-        assertThatThrownBy(() -> baseContentService.updateContentCommon("vusumzi", content.getId(), req))
+        assertThatThrownBy(() -> baseContentService.updateContentCommon(PRINCIPAL, content.getId(), req, null))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("not authorized");
+        verify(contentOutbox, never()).append(any());
     }
 
     @Test
     void shouldThrowWhenContentNotFound_OnUpdate() {
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
+        when(contentRepository.updateReturningPreviousStatus(eq(99), eq(1), isNull(), eq("Update"), isNull(), isNull(),
+                any(LocalDateTime.class))).thenReturn(Optional.empty());
         when(contentRepository.findById(99)).thenReturn(Optional.empty());
 
         ContentRequest req = new ContentRequest();
         req.setTitle("Update");
 
-        assertThatThrownBy(() -> baseContentService.updateContentCommon("vusumzi", 99, req))
+        assertThatThrownBy(() -> baseContentService.updateContentCommon(PRINCIPAL, 99, req, null))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Content not found");
     }
 
+    @Test
+    void shouldFailPreconditionWhenAuthorsVersionIsStale() {
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), eq(3L), eq("Stale"), isNull(), isNull(),
+                any(LocalDateTime.class))).thenReturn(Optional.empty());
+        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+
+        ContentRequest req = new ContentRequest();
+        req.setTitle("Stale");
+
+        assertThatThrownBy(() -> baseContentService.updateContentCommon(PRINCIPAL, 10, req, 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("not 3");
+        verify(publishedContentCache, never()).evict(any(), any(), any());
+    }
+
+    // ----------------------------
+    // getContent()
+    // ----------------------------
+    @Test
+    void shouldOnlyShowPublishedContentToAnonymousCallers() {
+        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+
+        assertThatThrownBy(() -> baseContentService.getContent(null, 10))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("User not found");
+        assertThat(baseContentService.getContent(PRINCIPAL, 10)).isEqualTo(content);
+    }
+
+    // ----------------------------
+    // getPublishedStamp()
+    // ----------------------------
+    @Test
+    void shouldOnlyExposeStampsOfPublishedContent() {
+        when(contentRepository.findStampById(10)).thenReturn(Optional.of(content));
+
+        assertThat(baseContentService.getPublishedStamp(10)).isEmpty();
+
+        content.setStatus(Status.PUBLISHED);
+        assertThat(baseContentService.getPublishedStamp(10)).contains(content);
+    }
+
     // ----------------------------
     // Helper subclass to expose protected methods
     // ----------------------------
     static class TestableContentService extends BaseContentService {
-        protected TestableContentService(ContentRepository contentRepository, UserRepository userRepository) {
-            super(contentRepository, userRepository);
+        protected TestableContentService(ContentRepository contentRepository,
+                                         PublishedContentCache publishedContentCache,
+                                         ContentOutbox contentOutbox) {
+            super(contentRepository, publishedContentCache, contentOutbox);
         }
     }
 }
@@ -1,17 +1,27 @@
 package com.iamvusumzi.content_manager.service.content.impl;
 
+import com.iamvusumzi.content_manager.dto.ContentBatchOperation;
 import com.iamvusumzi.content_manager.dto.ContentRequest;
 import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
 import com.iamvusumzi.content_manager.model.Status;
 import com.iamvusumzi.content_manager.model.User;
 import com.iamvusumzi.content_manager.repository.ContentRepository;
-import com.iamvusumzi.content_manager.repository.UserRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult;
+import com.iamvusumzi.content_manager.service.content.ContentBatchResult.Outcome;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import com.iamvusumzi.content_manager.service.content.outbox.ContentOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
@@ -20,6 +30,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -32,11 +45,18 @@ class UserContentServiceImplTest {
     private ContentRepository contentRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ContentOutbox contentOutbox;
+
+    @Spy
+    private PublishedContentCache publishedContentCache =
+            new PublishedContentCache(new NoOpCacheManager(), new SimpleMeterRegistry(), 1000, null, 0);
 
     @InjectMocks
     private UserContentServiceImpl userContentService;
 
+    private static final AuthenticatedUser PRINCIPAL = new AuthenticatedUser(1, "vusumzi", Role.USER);
+    private static final AuthenticatedUser SOMEONE_ELSE = new AuthenticatedUser(2, "someoneElse", Role.USER);
+
     private User user;
     private Content content;
 
@@ -63,14 +83,13 @@ class UserContentServiceImplTest {
         req.setTitle("My Article");
         req.setDesc("Description");
         req.setStatus("DRAFT");
-
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
         when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Content created = userContentService.createContent("vusumzi", req);
+        Content created = userContentService.createContent(PRINCIPAL, req);
 
         assertThat(created.getTitle()).isEqualTo("My Article");
-        assertThat(created.getAuthor()).isEqualTo(user);
+        assertThat(created.getAuthor().getId()).isEqualTo(1);
+        assertThat(created.getAuthor().getUsername()).isEqualTo("vusumzi");
         verify(contentRepository).save(any(Content.class));
     }
 
@@ -79,11 +98,10 @@ class UserContentServiceImplTest {
     // ----------------------------
     @Test
     void shouldReturnMyContents() {
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
         when(contentRepository.findByAuthorIdOrderByDateCreatedDesc(user.getId()))
                 .thenReturn(List.of(content));
 
-        List<Content> results = userContentService.getMyContents("vusumzi");
+        List<Content> results = userContentService.getMyContents(PRINCIPAL);
 
         assertThat(results).hasSize(1);
         assertThat(results.get(0).getTitle()).isEqualTo("Draft Post");
@@ -117,7 +135,7 @@ class UserContentServiceImplTest {
         content.setStatus(Status.PUBLISHED);
         when(contentRepository.findById(10)).thenReturn(Optional.of(content));
 
-        Content result = userContentService.getContentById(10, "someoneElse");
+        Content result = userContentService.getContentById(10, SOMEONE_ELSE);
 
         assertThat(result).isEqualTo(content);
     }
@@ -125,9 +143,8 @@ class UserContentServiceImplTest {
     @Test
     void shouldReturnDraftIfAuthor() {
         when(contentRepository.findById(10)).thenReturn(Optional.of(content));
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
 
-        Content result = userContentService.getContentById(10, "vusumzi");
+        Content result = userContentService.getContentById(10, PRINCIPAL);
 
         assertThat(result).isEqualTo(content);
     }
@@ -141,9 +158,8 @@ class UserContentServiceImplTest {
         content.setStatus(Status.DRAFT);
 
         when(contentRepository.findById(10)).thenReturn(Optional.of(content));
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
 
-        assertThatThrownBy(() -> userContentService.getContentById(10, "vusumzi"))
+        assertThatThrownBy(() -> userContentService.getContentById(10, PRINCIPAL))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("not authorized");
     }
@@ -152,7 +168,7 @@ class UserContentServiceImplTest {
     void shouldThrowWhenContentNotFound_OnGetById() {
         when(contentRepository.findById(99)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> userContentService.getContentById(99, "vusumzi"))
+        assertThatThrownBy(() -> userContentService.getContentById(99, PRINCIPAL))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Content not found");
     }
@@ -167,14 +183,19 @@ class UserContentServiceImplTest {
         req.setDesc("Updated Desc");
         req.setStatus("PUBLISHED");
 
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
+        when(contentRepository.updateReturningPreviousStatus(eq(10), eq(1), isNull(), eq("Updated Title"), eq("Updated Desc"),
+                eq(Status.PUBLISHED), any(LocalDateTime.class))).thenAnswer(inv -> {
+                    content.setTitle("Updated Title");
+                    content.setStatus(Status.PUBLISHED);
+                    return Optional.of(Status.DRAFT);
+                });
         when(contentRepository.findById(content.getId())).thenReturn(Optional.of(content));
-        when(contentRepository.save(any(Content.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Content updated = userContentService.updateContent("vusumzi", content.getId(), req);
+        Content updated = userContentService.updateContent(PRINCIPAL, content.getId(), req, null);
 
         assertThat(updated.getTitle()).isEqualTo("Updated Title");
         assertThat(updated.getStatus()).isEqualTo(Status.PUBLISHED);
+        verify(contentRepository, never()).save(any(Content.class));
     }
 
     // ----------------------------
@@ -182,35 +203,100 @@ class UserContentServiceImplTest {
     // ----------------------------
     @Test
     void shouldDeleteOwnContent() {
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
-        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+        when(contentRepository.deleteReturningStatus(10, 1)).thenReturn(Optional.of(Status.DRAFT));
 
-        userContentService.deleteContent("vusumzi", 10);
+        userContentService.deleteContent(PRINCIPAL, 10);
 
-        verify(contentRepository).delete(content);
+        verify(contentRepository, never()).findById(any());
+        verify(publishedContentCache).evict(10, Status.DRAFT, null);
+        verify(contentOutbox).append(argThat((ContentChangedEvent event) ->
+                event.getContentId() == 10 && event.isDeleted() && event.getPreviousStatus() == Status.DRAFT));
     }
 
     @Test
     void shouldThrowAccessDeniedWhenDeletingSomeoneElsesContent() {
-        User another = new User();
-        another.setId(2);
-        content.setAuthor(another);
-
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
-        when(contentRepository.findById(10)).thenReturn(Optional.of(content));
+        when(contentRepository.deleteReturningStatus(10, 1)).thenReturn(Optional.empty());
+        when(contentRepository.existsById(10)).thenReturn(true);
 
-        assertThatThrownBy(() -> userContentService.deleteContent("vusumzi", 10))
+        assertThatThrownBy(() -> userContentService.deleteContent(PRINCIPAL, 10))
                 .isInstanceOf(AccessDeniedException.class)
                 .hasMessageContaining("not authorized");
+        verify(contentOutbox, never()).append(any());
     }
 
     @Test
     void shouldThrowWhenContentNotFound_OnDelete() {
-        when(userRepository.findByUsername("vusumzi")).thenReturn(Optional.of(user));
-        when(contentRepository.findById(99)).thenReturn(Optional.empty());
+        when(contentRepository.deleteReturningStatus(99, 1)).thenReturn(Optional.empty());
+        when(contentRepository.existsById(99)).thenReturn(false);
 
-        assertThatThrownBy(() -> userContentService.deleteContent("vusumzi", 99))
+        assertThatThrownBy(() -> userContentService.deleteContent(PRINCIPAL, 99))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Content not found");
     }
+
+    // ----------------------------
+    // applyBatch()
+    // ----------------------------
+    @Test
+    void shouldSaveCreatesTogetherWithTheTokenAuthor() {
+        when(contentRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        List<ContentBatchResult> results = userContentService.applyBatch(PRINCIPAL, List.of(
+                batchOp("CREATE", null, request("First", "PUBLISHED")),
+                batchOp("create", null, request("Second", "DRAFT"))));
+
+        assertThat(results).extracting(ContentBatchResult::getOutcome).containsExactly(Outcome.CREATED, Outcome.CREATED);
+        assertThat(results.get(0).getContent().getAuthor().getId()).isEqualTo(1);
+        assertThat(results.get(1).getContent().getAuthor()).isSameAs(results.get(0).getContent().getAuthor());
+        verify(contentRepository).saveAll(argThat(contents -> ((List<Content>) contents).size() == 2));
+        verify(contentRepository, never()).save(any(Content.class));
+        verify(publishedContentCache, times(1)).evict(null, null, Status.PUBLISHED);
+    }
+
+    @Test
+    void shouldReportPerItemOutcomesWithoutFailingBatch() {
+        User another = new User();
+        another.setId(2);
+        Content othersContent = new Content("Other", "Desc", Status.PUBLISHED, another);
+        othersContent.setId(11);
+        when(contentRepository.findAllById(anyIterable())).thenReturn(List.of(content, othersContent));
+
+        List<ContentBatchResult> results = userContentService.applyBatch(PRINCIPAL, List.of(
+                batchOp("UPDATE", 10, request("Renamed", null)),
+                batchOp("UPDATE", 11, request("Hijacked", null)),
+                batchOp("DELETE", 11, null),
+                batchOp("DELETE", 99, null),
+                batchOp("CREATE", null, request("Bad status", "ARCHIVED")),
+                batchOp("MERGE", 10, null),
+                batchOp("DELETE", 10, null),
+                batchOp("UPDATE", 10, request("After delete", null))));
+
+        assertThat(results).extracting(ContentBatchResult::getOutcome).containsExactly(
+                Outcome.UPDATED, Outcome.FORBIDDEN, Outcome.FORBIDDEN, Outcome.NOT_FOUND,
+                Outcome.INVALID, Outcome.INVALID, Outcome.DELETED, Outcome.NOT_FOUND);
+        assertThat(content.getTitle()).isEqualTo("Renamed");
+        assertThat(content.getStatus()).isEqualTo(Status.DRAFT);
+        assertThat(othersContent.getTitle()).isEqualTo("Other");
+        verify(contentRepository).deleteAll(List.of(content));
+        // Only the update and the delete changed anything; both replaced a draft, so neither was public
+        verify(contentOutbox).appendAll(argThat(changes -> changes.size() == 2
+                && !changes.get(0).isDeleted() && changes.get(1).isDeleted()
+                && changes.stream().allMatch(change -> change.getPreviousStatus() == Status.DRAFT)));
+    }
+
+    private static ContentBatchOperation batchOp(String op, Integer id, ContentRequest content) {
+        ContentBatchOperation operation = new ContentBatchOperation();
+        operation.setOp(op);
+        operation.setId(id);
+        operation.setContent(content);
+        return operation;
+    }
+
+    private static ContentRequest request(String title, String status) {
+        ContentRequest request = new ContentRequest();
+        request.setTitle(title);
+        request.setDesc("Description");
+        request.setStatus(status);
+        return request;
+    }
 }
@@ -0,0 +1,214 @@
+package com.iamvusumzi.content_manager.service.content.outbox;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.ContentOutboxEntry;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.repository.ContentOutboxRepository;
+import com.iamvusumzi.content_manager.repository.ContentOutboxSequencerRepository;
+import com.iamvusumzi.content_manager.service.content.ContentChangeConsumer;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drains a real outbox table. Rows are committed before each drain, as they would be
+ * by a content write, so the tests do not run inside a test transaction.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:outboxdb;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_UPPER=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContentOutboxDispatcherTest {
+
+    @Autowired
+    private ContentOutboxRepository outboxRepository;
+
+    @Autowired
+    private ContentOutboxSequencerRepository sequencerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<ContentChangedEvent> received = new CopyOnWriteArrayList<>();
+    private final Set<Integer> failingContent = new CopyOnWriteArraySet<>();
+    private final CountDownLatch delivered = new CountDownLatch(1);
+
+    private ContentOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        ContentChangeConsumer consumer = event -> {
+            if (failingContent.contains(event.getContentId())) throw new IllegalStateException("Consumer is down");
+            received.add(event);
+            delivered.countDown();
+        };
+        dispatcher = dispatcher(consumer, 600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher.isRunning()) dispatcher.stop();
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void shouldDeliverOnTheWorkerOnceTheWriteCommits() throws Exception {
+        ContentOutbox outbox = new ContentOutbox(outboxRepository, dispatcher);
+        dispatcher.start();
+        // Let the initial poll find the empty table; the next one is a minute away, so only the commit signal can deliver
+        Thread.sleep(100);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.append(ContentChangedEvent.saved(content(7, "Outbox", Status.PUBLISHED))));
+
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).singleElement().satisfies(event -> {
+            assertThat(event.getContentId()).isEqualTo(7);
+            assertThat(event.getTitle()).isEqualTo("Outbox");
+        });
+        dispatcher.stop();
+        assertThat(outboxRepository.findAll()).singleElement()
+                .satisfies(entry -> assertThat(entry.getSeq()).isNotNull());
+    }
+
+    @Test
+    void shouldDeliverOnlyTheNewestChangePerContentInOrder() {
+        append(ContentChangedEvent.saved(content(1, "First draft", Status.DRAFT)));
+        append(ContentChangedEvent.saved(content(2, "Other", Status.PUBLISHED)));
+        append(ContentChangedEvent.saved(content(1, "Published", Status.PUBLISHED)));
+        append(ContentChangedEvent.deleted(2, Status.PUBLISHED));
+        append(ContentChangedEvent.saved(content(3, "Third", Status.PUBLISHED)));
+
+        assertThat(dispatcher.drainBatch()).isFalse();
+
+        assertThat(received).extracting(ContentChangedEvent::getContentId).containsExactly(1, 2, 3);
+        assertThat(received.get(0).getTitle()).isEqualTo("Published");
+        assertThat(received.get(1).isDeleted()).isTrue();
+    }
+
+    @Test
+    void shouldKeepTheStatusBeforeTheOldestOfCoalescedChanges() {
+        append(ContentChangedEvent.saved(content(1, "Unpublished", Status.DRAFT), Status.PUBLISHED));
+        append(ContentChangedEvent.saved(content(1, "Draft edit", Status.DRAFT), Status.DRAFT));
+
+        dispatcher.drainBatch();
+
+        assertThat(received).singleElement().satisfies(event -> {
+            assertThat(event.getTitle()).isEqualTo("Draft edit");
+            assertThat(event.wasPublished()).isTrue();
+        });
+    }
+
+    @Test
+    void shouldDeliverEveryChangeToEveryInstance() {
+        List<ContentChangedEvent> otherInstance = new CopyOnWriteArrayList<>();
+        ContentOutboxDispatcher other = dispatcher(otherInstance::add, 600_000);
+        append(ContentChangedEvent.saved(content(1, "One", Status.PUBLISHED)));
+        append(ContentChangedEvent.saved(content(2, "Two", Status.PUBLISHED)));
+
+        dispatcher.drainBatch();
+        other.drainBatch();
+        dispatcher.drainBatch();
+
+        assertThat(received).extracting(ContentChangedEvent::getContentId).containsExactly(1, 2);
+        assertThat(otherInstance).extracting(ContentChangedEvent::getContentId).containsExactly(1, 2);
+    }
+
+    @Test
+    void shouldOrderChangesToOneContentByVersionNotId() {
+        // Two instances' id pools: the later write got the lower id
+        append(ContentChangedEvent.saved(content(1, "Second edit", Status.PUBLISHED, 2L)));
+        append(ContentChangedEvent.saved(content(1, "First edit", Status.PUBLISHED, 1L)));
+
+        dispatcher.drainBatch();
+
+        assertThat(received).singleElement()
+                .satisfies(event -> assertThat(event.getTitle()).isEqualTo("Second edit"));
+    }
+
+    @Test
+    void shouldDeleteDeliveredRowsOnceTheyExpire() {
+        ContentOutboxDispatcher expiring = dispatcher(event -> {}, 0);
+        append(ContentChangedEvent.saved(content(1, "One", Status.PUBLISHED)));
+
+        expiring.drainBatch();
+        expiring.drain();
+
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldStopAtAFailedChangeAndRetryItBeforeLaterOnes() {
+        append(ContentChangedEvent.saved(content(1, "One", Status.PUBLISHED)));
+        append(ContentChangedEvent.saved(content(2, "Two", Status.PUBLISHED)));
+        append(ContentChangedEvent.saved(content(3, "Three", Status.PUBLISHED)));
+        failingContent.add(2);
+
+        assertThat(dispatcher.drainBatch()).isFalse();
+
+        assertThat(received).extracting(ContentChangedEvent::getContentId).containsExactly(1);
+
+        failingContent.clear();
+        dispatcher.drainBatch();
+
+        assertThat(received).extracting(ContentChangedEvent::getContentId).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void shouldParkAChangeAfterMaxAttemptsAndMoveOn() {
+        append(ContentChangedEvent.saved(content(2, "Poison", Status.PUBLISHED)));
+        append(ContentChangedEvent.saved(content(3, "Three", Status.PUBLISHED)));
+        failingContent.add(2);
+
+        assertThat(dispatcher.drainBatch()).isFalse();
+        dispatcher.drainBatch();
+        failingContent.clear();
+        dispatcher.drainBatch();
+
+        assertThat(received).extracting(ContentChangedEvent::getContentId).containsExactly(3);
+    }
+
+    private ContentOutboxDispatcher dispatcher(ContentChangeConsumer consumer, long retentionMs) {
+        return new ContentOutboxDispatcher(outboxRepository, sequencerRepository, transactionManager, List.of(consumer),
+                new SimpleMeterRegistry(), 10, 2, 60_000, 0, retentionMs);
+    }
+
+    private void append(ContentChangedEvent event) {
+        outboxRepository.save(new ContentOutboxEntry(event.getContentId(), event.getVersion(), event.getTitle(),
+                event.getDesc(), event.getStatus(), event.getPreviousStatus()));
+    }
+
+    private static Content content(Integer id, String title, Status status) {
+        return content(id, title, status, null);
+    }
+
+    private static Content content(Integer id, String title, Status status, Long version) {
+        Content content = new Content(title, "Body", status, null);
+        content.setId(id);
+        ReflectionTestUtils.setField(content, "version", version);
+        return content;
+    }
+}
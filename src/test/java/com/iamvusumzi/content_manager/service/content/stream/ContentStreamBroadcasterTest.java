@@ -0,0 +1,240 @@
+package com.iamvusumzi.content_manager.service.content.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Role;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.security.AuthenticatedUser;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import com.iamvusumzi.content_manager.service.content.PublishedContentCache;
+import com.iamvusumzi.content_manager.service.content.impl.UserContentServiceImpl;
+import com.iamvusumzi.content_manager.service.content.outbox.ContentOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContentStreamBroadcasterTest {
+
+    private static final Pattern EVENT = Pattern.compile("event:(\\w+)");
+    private static final Pattern ID = Pattern.compile("id:(\\S+)");
+
+    private ContentStreamBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        if (broadcaster != null && broadcaster.isRunning()) broadcaster.stop();
+    }
+
+    @Test
+    void shouldSendReadyThenChangesInCommitOrder() throws Exception {
+        start(8, 16, 10, 60_000);
+        RecordingEmitter client = new RecordingEmitter();
+
+        broadcaster.subscribe(client, null);
+        broadcaster.onContentChanged(ContentChangedEvent.saved(content(1, "Title", Status.PUBLISHED)));
+        broadcaster.onContentChanged(ContentChangedEvent.saved(content(1, "Title", Status.DRAFT), Status.PUBLISHED));
+        broadcaster.onContentChanged(ContentChangedEvent.deleted(2, Status.PUBLISHED));
+
+        waitUntil(() -> client.frames.size() == 4);
+        assertThat(client.names()).containsExactly("ready", "published", "removed", "removed");
+        assertThat(client.frames.get(1)).contains("\"title\":\"Title\"");
+        assertThat(client.frames.get(2)).contains("data:{\"id\":1}");
+    }
+
+    @Test
+    void shouldNeverStreamChangesThatStayOutOfThePublicFeed() throws Exception {
+        start(8, 16, 10, 60_000);
+        RecordingEmitter client = new RecordingEmitter();
+
+        broadcaster.subscribe(client, null);
+        broadcaster.onContentChanged(ContentChangedEvent.saved(content(8, "New draft", Status.DRAFT)));
+        broadcaster.onContentChanged(ContentChangedEvent.saved(content(8, "Draft edit", Status.DRAFT), Status.DRAFT));
+        broadcaster.onContentChanged(ContentChangedEvent.deleted(8, Status.DRAFT));
+        broadcaster.onContentChanged(ContentChangedEvent.saved(content(9, "Public", Status.PUBLISHED), Status.DRAFT));
+
+        waitUntil(() -> client.frames.size() == 2);
+        assertThat(client.names()).containsExactly("ready", "published");
+        assertThat(client.frames).noneMatch(frame -> frame.contains("\"id\":8"));
+    }
+
+    @Test
+    void shouldNotStreamTheDeleteOfADraft() throws Exception {
+        start(8, 16, 10, 60_000);
+        RecordingEmitter client = new RecordingEmitter();
+        broadcaster.subscribe(client, null);
+
+        // A real delete, with its outbox append handed straight to the broadcaster
+        ContentRepository contentRepository = mock(ContentRepository.class);
+        ContentOutbox contentOutbox = mock(ContentOutbox.class);
+        doAnswer(inv -> {
+            broadcaster.onContentChanged(inv.getArgument(0));
+            return null;
+        }).when(contentOutbox).append(any());
+        when(contentRepository.deleteReturningStatus(8, 1)).thenReturn(Optional.of(Status.DRAFT));
+        when(contentRepository.deleteReturningStatus(9, 1)).thenReturn(Optional.of(Status.PUBLISHED));
+        UserContentServiceImpl service = new UserContentServiceImpl(contentRepository,
+                new PublishedContentCache(new NoOpCacheManager(), new SimpleMeterRegistry(), 1000, null, 0), contentOutbox);
+        AuthenticatedUser author = new AuthenticatedUser(1, "author", Role.USER);
+
+        service.deleteContent(author, 8);
+        service.deleteContent(author, 9);
+
+        waitUntil(() -> client.frames.size() == 2);
+        assertThat(client.names()).containsExactly("ready", "removed");
+        assertThat(client.frames.get(1)).contains("data:{\"id\":9}");
+        assertThat(client.frames).noneMatch(frame -> frame.contains("\"id\":8"));
+    }
+
+    @Test
+    void shouldResumeFromLastEventIdWhileTheRingStillCoversIt() throws Exception {
+        start(8, 3, 10, 60_000);
+        RecordingEmitter first = new RecordingEmitter();
+        broadcaster.subscribe(first, null);
+        for (int id = 1; id <= 5; id++) {
+            broadcaster.onContentChanged(ContentChangedEvent.saved(content(id, "Post " + id, Status.PUBLISHED)));
+        }
+        waitUntil(() -> first.frames.size() == 6);
+        List<String> ids = first.ids();
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        broadcaster.subscribe(resumed, ids.get(3));
+        RecordingEmitter tooOld = new RecordingEmitter();
+        broadcaster.subscribe(tooOld, ids.get(1));
+        RecordingEmitter otherInstance = new RecordingEmitter();
+        broadcaster.subscribe(otherInstance, "someotherepoch-4");
+
+        waitUntil(() -> resumed.frames.size() == 2 && tooOld.frames.size() == 1 && otherInstance.frames.size() == 1);
+        assertThat(resumed.ids()).containsExactly(ids.get(4), ids.get(5));
+        assertThat(tooOld.names()).containsExactly("reset");
+        assertThat(tooOld.ids()).containsExactly(ids.get(5));
+        assertThat(otherInstance.names()).containsExactly("reset");
+    }
+
+    @Test
+    void shouldDropASlowSubscriberWithoutHoldingUpOthers() throws Exception {
+        start(2, 16, 10, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter();
+        broadcaster.subscribe(slow, null);
+        broadcaster.subscribe(fast, null);
+
+        for (int id = 1; id <= 6; id++) {
+            broadcaster.onContentChanged(ContentChangedEvent.saved(content(id, "Post " + id, Status.PUBLISHED)));
+            int expected = id + 1;
+            waitUntil(() -> fast.frames.size() == expected);
+        }
+
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void shouldSendHeartbeatsToIdleSubscribers() throws Exception {
+        start(8, 16, 10, 20);
+        RecordingEmitter client = new RecordingEmitter();
+
+        broadcaster.subscribe(client, null);
+
+        waitUntil(() -> client.frames.stream().anyMatch(frame -> frame.startsWith(":keepalive")));
+    }
+
+    @Test
+    void shouldAskSubscribersOverCapacityToRetryLater() throws Exception {
+        start(8, 16, 1, 60_000);
+        broadcaster.subscribe(new RecordingEmitter(), null);
+        RecordingEmitter turnedAway = new RecordingEmitter();
+
+        broadcaster.subscribe(turnedAway, null);
+
+        assertThat(turnedAway.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(turnedAway.frames).singleElement().satisfies(frame -> assertThat(frame).contains("retry:5000"));
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    private void start(int bufferSize, int replaySize, int maxSubscribers, long heartbeatMs) {
+        broadcaster = new ContentStreamBroadcaster(new ObjectMapper(), new SimpleMeterRegistry(),
+                bufferSize, replaySize, maxSubscribers, 2, heartbeatMs, 60_000);
+        broadcaster.start();
+    }
+
+    private static Content content(Integer id, String title, Status status) {
+        Content content = new Content(title, "Body", status, null);
+        content.setId(id);
+        return content;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // Records each frame as it would go on the wire; optionally blocks sends like a stalled client
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            StringBuilder frame = new StringBuilder();
+            builder.build().forEach(part -> frame.append(part.getData()));
+            frames.add(frame.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        List<String> names() {
+            return frames.stream().map(frame -> find(EVENT, frame)).filter(name -> name != null).toList();
+        }
+
+        List<String> ids() {
+            return frames.stream().map(frame -> find(ID, frame)).filter(id -> id != null).toList();
+        }
+
+        private static String find(Pattern pattern, String frame) {
+            Matcher matcher = pattern.matcher(frame);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+    }
+}
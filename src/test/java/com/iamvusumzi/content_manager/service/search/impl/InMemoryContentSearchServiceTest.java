@@ -0,0 +1,99 @@
+package com.iamvusumzi.content_manager.service.search.impl;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.service.content.ContentChangedEvent;
+import com.iamvusumzi.content_manager.service.search.ContentSearchPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryContentSearchServiceTest {
+
+    @Mock
+    private ContentRepository contentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryContentSearchService searchService;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = new User();
+        author.setId(1);
+        author.setUsername("vusumzi");
+        searchService = new InMemoryContentSearchService(contentRepository, transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldBuildIndexFromPublishedContentAtStartup() {
+        when(contentRepository.forEachByStatus(eq(Status.PUBLISHED), any())).thenAnswer(inv -> {
+            Consumer<Content> consumer = inv.getArgument(1);
+            consumer.accept(content(1, "Spring Boot basics"));
+            consumer.accept(content(2, "Spring Data paging"));
+            return 2L;
+        });
+        when(contentRepository.findByIdIn(List.of(2, 1))).thenReturn(List.of(content(1, "a"), content(2, "b")));
+
+        searchService.afterSingletonsInstantiated();
+        ContentSearchPage page = searchService.search("spring", 0, 10);
+
+        assertThat(searchService.indexedDocuments()).isEqualTo(2);
+        assertThat(page.getContents()).extracting(Content::getId).containsExactly(2, 1);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldFollowChangeEvents() {
+        searchService.onContentChanged(ContentChangedEvent.saved(content(5, "Kafka streams")));
+        assertThat(searchService.indexedDocuments()).isEqualTo(1);
+
+        Content draft = content(5, "Kafka streams");
+        draft.setStatus(Status.DRAFT);
+        searchService.onContentChanged(ContentChangedEvent.saved(draft));
+        assertThat(searchService.indexedDocuments()).isZero();
+
+        searchService.onContentChanged(ContentChangedEvent.saved(content(6, "Kafka connect")));
+        searchService.onContentChanged(ContentChangedEvent.deleted(6, Status.PUBLISHED));
+        assertThat(searchService.search("kafka", 0, 10).getContents()).isEmpty();
+        verify(contentRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    void shouldSliceRequestedPageFromTopHits() {
+        for (int id = 1; id <= 5; id++) {
+            searchService.onContentChanged(ContentChangedEvent.saved(content(id, "Java tips")));
+        }
+        // Equal scores: newest (highest id) first
+        when(contentRepository.findByIdIn(List.of(3, 2))).thenReturn(List.of(content(2, "a"), content(3, "b")));
+
+        ContentSearchPage page = searchService.search("java", 1, 2);
+
+        assertThat(page.getContents()).extracting(Content::getId).containsExactly(3, 2);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    private Content content(int id, String title) {
+        Content content = new Content(title, "Body", Status.PUBLISHED, author);
+        content.setId(id);
+        return content;
+    }
+}
@@ -0,0 +1,81 @@
+package com.iamvusumzi.content_manager.service.search.impl;
+
+import com.iamvusumzi.content_manager.model.Content;
+import com.iamvusumzi.content_manager.model.Status;
+import com.iamvusumzi.content_manager.model.User;
+import com.iamvusumzi.content_manager.repository.ContentRepository;
+import com.iamvusumzi.content_manager.service.search.ContentSearchPage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * The ranking SQL itself needs Postgres (tsvector, GIN); these tests cover paging
+ * and restoring rank order around it.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostgresContentSearchServiceTest {
+
+    @Mock
+    private ContentRepository contentRepository;
+
+    @InjectMocks
+    private PostgresContentSearchService searchService;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = new User();
+        author.setId(1);
+        author.setUsername("vusumzi");
+    }
+
+    @Test
+    void shouldKeepRankOrderAndDetectNextPage() {
+        when(contentRepository.searchPublishedIds("spring", 3, 4)).thenReturn(List.of(7, 3, 5));
+        when(contentRepository.findByIdIn(List.of(7, 3))).thenReturn(List.of(content(3), content(7)));
+
+        ContentSearchPage page = searchService.search("spring", 2, 2);
+
+        assertThat(page.getContents()).extracting(Content::getId).containsExactly(7, 3);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.getPage()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReportLastPage() {
+        when(contentRepository.searchPublishedIds("spring", 11, 0)).thenReturn(List.of(4));
+        when(contentRepository.findByIdIn(List.of(4))).thenReturn(List.of(content(4)));
+
+        ContentSearchPage page = searchService.search("spring", 0, 10);
+
+        assertThat(page.getContents()).extracting(Content::getId).containsExactly(4);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void shouldNotLoadRowsWhenNothingMatches() {
+        when(contentRepository.searchPublishedIds("nothing", 11, 0)).thenReturn(List.of());
+
+        ContentSearchPage page = searchService.search("nothing", 0, 10);
+
+        assertThat(page.getContents()).isEmpty();
+        verify(contentRepository, never()).findByIdIn(any());
+    }
+
+    private Content content(int id) {
+        Content content = new Content("Title " + id, "Body", Status.PUBLISHED, author);
+        content.setId(id);
+        return content;
+    }
+}
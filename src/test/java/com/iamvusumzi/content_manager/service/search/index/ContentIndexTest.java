@@ -0,0 +1,163 @@
+package com.iamvusumzi.content_manager.service.search.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentIndexTest {
+
+    private ContentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ContentIndex();
+        index.put(1, "Getting started with Spring Boot", "A first REST API in Java");
+        index.put(2, "Postgres full-text search", "Ranking documents with tsvector in Spring apps");
+        index.put(3, "Spring Security and JWT", "Stateless authentication for a Spring Boot API");
+        index.put(4, "Cooking with cast iron", "Seasoning, searing and cleaning");
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveDescriptionMatches() {
+        assertThat(index.search("postgres", 10)).containsExactly(2);
+        // "boot" is in the title of 1 but only in the description of 3
+        assertThat(index.search("boot", 10)).containsExactly(1, 3);
+        assertThat(index.search("search", 10)).containsExactly(2);
+    }
+
+    @Test
+    void shouldRequireEveryTermWithinAClause() {
+        assertThat(index.search("spring api", 10)).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.search("spring AND jwt", 10)).containsExactly(3);
+        assertThat(index.search("spring cooking", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldUnionClausesSeparatedByOr() {
+        assertThat(index.search("jwt OR cooking", 10)).containsExactlyInAnyOrder(3, 4);
+        // lower-case "or" is a stop word, not an operator
+        assertThat(index.search("jwt or cooking", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchPrefixes() {
+        assertThat(index.search("sea*", 10)).containsExactlyInAnyOrder(2, 4);
+        assertThat(index.search("spr* secur*", 10)).containsExactly(3);
+        // Too short to expand
+        assertThat(index.search("s*", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreCaseAndPunctuation() {
+        assertThat(index.search("SPRING-boot!", 10)).containsExactlyInAnyOrder(1, 3);
+        assertThat(index.search("the and of", 10)).isEmpty();
+        assertThat(index.search("   ", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnOnlyTheTopK() {
+        assertThat(index.search("spring", 2)).hasSize(2);
+        assertThat(index.search("spring", 0)).isEmpty();
+    }
+
+    @Test
+    void shouldReplaceAndRemoveDocuments() {
+        index.put(2, "MySQL tuning", "Indexes and buffers");
+        assertThat(index.search("postgres", 10)).isEmpty();
+        assertThat(index.search("mysql", 10)).containsExactly(2);
+        assertThat(index.size()).isEqualTo(4);
+
+        index.remove(2);
+        index.remove(2);
+        assertThat(index.search("mysql", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldAcceptIdsOutOfOrderAndBeyondInitialCapacity() {
+        index.put(50_000, "Spring batch jobs", null);
+        index.put(20, "Spring batch partitioning", null);
+        assertThat(index.search("batch", 10)).containsExactlyInAnyOrder(20, 50_000);
+        assertThatThrownBy(() -> index.put(-1, "x", "y")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldMergePrefixesOverIdsFarApart() {
+        // Nothing is sized by the highest id, so this needs no multi-gigabyte arrays
+        index.put(Integer.MAX_VALUE - 1, "Searching sparse ids", null);
+        index.put(1_000_000_000, "Searchable", "searched searches");
+
+        assertThat(index.search("searc*", 10)).containsExactlyInAnyOrder(2, 1_000_000_000, Integer.MAX_VALUE - 1);
+        index.remove(Integer.MAX_VALUE - 1);
+        assertThat(index.search("searc*", 10)).containsExactlyInAnyOrder(2, 1_000_000_000);
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldAgreeWithBruteForceOnRandomDocuments() {
+        ContentIndex random = new ContentIndex();
+        String[] vocabulary = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta"};
+        boolean[][] contains = new boolean[2000][vocabulary.length];
+        Random rnd = new Random(42);
+        for (int id = 0; id < contains.length; id++) {
+            StringBuilder title = new StringBuilder();
+            for (int t = 0; t < vocabulary.length; t++) {
+                if (rnd.nextInt(3) == 0) {
+                    title.append(vocabulary[t]).append(' ');
+                    contains[id][t] = true;
+                }
+            }
+            random.put(id, title.toString(), null);
+        }
+
+        int[] hits = random.search("gamma theta OR beta eta", contains.length);
+        long expected = 0;
+        for (boolean[] doc : contains) {
+            if ((doc[2] && doc[7]) || (doc[1] && doc[6])) expected++;
+        }
+        assertThat(hits).hasSize((int) expected).doesNotHaveDuplicates();
+        for (int id : hits) {
+            assertThat((contains[id][2] && contains[id][7]) || (contains[id][1] && contains[id][6])).isTrue();
+        }
+    }
+
+    @Test
+    void shouldPruneToTheSameTopKAsAFullRanking() {
+        ContentIndex random = new ContentIndex();
+        String[] vocabulary = {"alpha", "beta", "gamma", "delta", "epsilon"};
+        Random rnd = new Random(7);
+        for (int id = 1; id <= 5000; id++) {
+            StringBuilder title = new StringBuilder();
+            StringBuilder desc = new StringBuilder();
+            for (int w = 0; w < 4; w++) title.append(vocabulary[rnd.nextInt(vocabulary.length)]).append(' ');
+            for (int w = 0; w < 12; w++) desc.append(vocabulary[rnd.nextInt(vocabulary.length)]).append(' ');
+            random.put(id, title.toString(), desc.toString());
+        }
+
+        for (String query : new String[]{"alpha", "beta gamma", "alp* delta", "beta OR epsilon gamma"}) {
+            int[] all = random.search(query, 5000);
+            assertThat(random.search(query, 10)).as(query).containsExactly(Arrays.copyOf(all, 10));
+        }
+    }
+
+    @Test
+    void shouldStayConsistentAcrossManyRemovals() {
+        ContentIndex churn = new ContentIndex();
+        for (int id = 1; id <= 100; id++) {
+            churn.put(id, "shared", id % 2 == 0 ? "even" : "odd");
+        }
+        for (int id = 1; id <= 90; id++) {
+            churn.remove(id);
+        }
+        churn.put(3, "shared", "odd");
+
+        assertThat(churn.search("shared", 100)).containsExactly(100, 99, 98, 97, 96, 95, 94, 93, 92, 91, 3);
+        assertThat(churn.search("shared even", 100)).containsExactly(100, 98, 96, 94, 92);
+        assertThat(churn.size()).isEqualTo(11);
+    }
+}